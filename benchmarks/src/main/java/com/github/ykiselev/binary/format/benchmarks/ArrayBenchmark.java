@@ -0,0 +1,432 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.BinaryInput;
+import com.github.ykiselev.binary.format.input.ByteBufferBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.output.ByteBufferBinaryOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares bulk array encoding/decoding of media classes (methods named after element type)
+ * with element-by-element single byte access which was used before (methods with {@code PerElement} suffix).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayBenchmark {
+
+    @Param({"16", "1024", "1048576"})
+    int length;
+
+    private char[] chars;
+
+    private ByteBuffer charData;
+
+    private BinaryInput charInput;
+
+    private ReadableMedia charMedia;
+
+    private short[] shorts;
+
+    private ByteBuffer shortData;
+
+    private BinaryInput shortInput;
+
+    private ReadableMedia shortMedia;
+
+    private int[] ints;
+
+    private ByteBuffer intData;
+
+    private BinaryInput intInput;
+
+    private ReadableMedia intMedia;
+
+    private long[] longs;
+
+    private ByteBuffer longData;
+
+    private BinaryInput longInput;
+
+    private ReadableMedia longMedia;
+
+    private float[] floats;
+
+    private ByteBuffer floatData;
+
+    private BinaryInput floatInput;
+
+    private ReadableMedia floatMedia;
+
+    private double[] doubles;
+
+    private ByteBuffer doubleData;
+
+    private BinaryInput doubleInput;
+
+    private ReadableMedia doubleMedia;
+
+    private ByteBuffer buffer;
+
+    private BinaryOutput output;
+
+    private WritableMedia writableMedia;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random random = new Random(1);
+        buffer = ByteBuffer.allocate(8 * length + 16);
+        output = new ByteBufferBinaryOutput(buffer);
+        writableMedia = new SimpleWritableMedia(output, null);
+
+        chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) random.nextInt();
+        }
+        buffer.clear();
+        writableMedia.writeCharArray(chars);
+        buffer.flip();
+        charData = ByteBuffer.allocate(buffer.remaining());
+        charData.put(buffer).flip();
+        charInput = new ByteBufferBinaryInput(charData);
+        charMedia = new SimpleReadableMedia(charInput, null);
+
+        shorts = new short[length];
+        for (int i = 0; i < length; i++) {
+            shorts[i] = (short) random.nextInt();
+        }
+        buffer.clear();
+        writableMedia.writeShortArray(shorts);
+        buffer.flip();
+        shortData = ByteBuffer.allocate(buffer.remaining());
+        shortData.put(buffer).flip();
+        shortInput = new ByteBufferBinaryInput(shortData);
+        shortMedia = new SimpleReadableMedia(shortInput, null);
+
+        ints = new int[length];
+        for (int i = 0; i < length; i++) {
+            ints[i] = random.nextInt();
+        }
+        buffer.clear();
+        writableMedia.writeIntArray(ints);
+        buffer.flip();
+        intData = ByteBuffer.allocate(buffer.remaining());
+        intData.put(buffer).flip();
+        intInput = new ByteBufferBinaryInput(intData);
+        intMedia = new SimpleReadableMedia(intInput, null);
+
+        longs = new long[length];
+        for (int i = 0; i < length; i++) {
+            longs[i] = random.nextLong();
+        }
+        buffer.clear();
+        writableMedia.writeLongArray(longs);
+        buffer.flip();
+        longData = ByteBuffer.allocate(buffer.remaining());
+        longData.put(buffer).flip();
+        longInput = new ByteBufferBinaryInput(longData);
+        longMedia = new SimpleReadableMedia(longInput, null);
+
+        floats = new float[length];
+        for (int i = 0; i < length; i++) {
+            floats[i] = random.nextFloat();
+        }
+        buffer.clear();
+        writableMedia.writeFloatArray(floats);
+        buffer.flip();
+        floatData = ByteBuffer.allocate(buffer.remaining());
+        floatData.put(buffer).flip();
+        floatInput = new ByteBufferBinaryInput(floatData);
+        floatMedia = new SimpleReadableMedia(floatInput, null);
+
+        doubles = new double[length];
+        for (int i = 0; i < length; i++) {
+            doubles[i] = random.nextDouble();
+        }
+        buffer.clear();
+        writableMedia.writeDoubleArray(doubles);
+        buffer.flip();
+        doubleData = ByteBuffer.allocate(buffer.remaining());
+        doubleData.put(buffer).flip();
+        doubleInput = new ByteBufferBinaryInput(doubleData);
+        doubleMedia = new SimpleReadableMedia(doubleInput, null);
+    }
+
+    private static void writeInt16(BinaryOutput out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeInt32(BinaryOutput out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+
+    private static void writeInt64(BinaryOutput out, long value) throws IOException {
+        writeInt32(out, (int) value);
+        writeInt32(out, (int) (value >>> 32));
+    }
+
+    private static short readInt16(BinaryInput in) throws IOException {
+        return (short) (in.read() + (in.read() << 8));
+    }
+
+    private static int readInt32(BinaryInput in) throws IOException {
+        return ((int) readInt16(in) & 0xffff) + (((int) readInt16(in) & 0xffff) << 16);
+    }
+
+    private static long readInt64(BinaryInput in) throws IOException {
+        return ((long) readInt32(in) & 0xffffffffL) + (((long) readInt32(in) & 0xffffffffL) << 32L);
+    }
+
+    @Benchmark
+    public ByteBuffer writeChar() throws IOException {
+        buffer.clear();
+        writableMedia.writeCharArray(chars);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeCharPerElement() throws IOException {
+        buffer.clear();
+        final BinaryOutput out = output;
+        for (char v : chars) {
+            writeInt16(out, v);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public char[] readChar() throws IOException {
+        charData.rewind();
+        return charMedia.readCharArray();
+    }
+
+    @Benchmark
+    public char[] readCharPerElement() throws IOException {
+        // skip type byte and packed length
+        charData.position(charData.capacity() - 2 * length);
+        final BinaryInput in = charInput;
+        final char[] result = new char[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (char) readInt16(in);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ByteBuffer writeShort() throws IOException {
+        buffer.clear();
+        writableMedia.writeShortArray(shorts);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeShortPerElement() throws IOException {
+        buffer.clear();
+        final BinaryOutput out = output;
+        for (short v : shorts) {
+            writeInt16(out, v);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public short[] readShort() throws IOException {
+        shortData.rewind();
+        return shortMedia.readShortArray();
+    }
+
+    @Benchmark
+    public short[] readShortPerElement() throws IOException {
+        // skip type byte and packed length
+        shortData.position(shortData.capacity() - 2 * length);
+        final BinaryInput in = shortInput;
+        final short[] result = new short[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = readInt16(in);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ByteBuffer writeInt() throws IOException {
+        buffer.clear();
+        writableMedia.writeIntArray(ints);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeIntPerElement() throws IOException {
+        buffer.clear();
+        final BinaryOutput out = output;
+        for (int v : ints) {
+            writeInt32(out, v);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] readInt() throws IOException {
+        intData.rewind();
+        return intMedia.readIntArray();
+    }
+
+    @Benchmark
+    public int[] readIntPerElement() throws IOException {
+        // skip type byte and packed length
+        intData.position(intData.capacity() - 4 * length);
+        final BinaryInput in = intInput;
+        final int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = readInt32(in);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ByteBuffer writeLong() throws IOException {
+        buffer.clear();
+        writableMedia.writeLongArray(longs);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeLongPerElement() throws IOException {
+        buffer.clear();
+        final BinaryOutput out = output;
+        for (long v : longs) {
+            writeInt64(out, v);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public long[] readLong() throws IOException {
+        longData.rewind();
+        return longMedia.readLongArray();
+    }
+
+    @Benchmark
+    public long[] readLongPerElement() throws IOException {
+        // skip type byte and packed length
+        longData.position(longData.capacity() - 8 * length);
+        final BinaryInput in = longInput;
+        final long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = readInt64(in);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ByteBuffer writeFloat() throws IOException {
+        buffer.clear();
+        writableMedia.writeFloatArray(floats);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeFloatPerElement() throws IOException {
+        buffer.clear();
+        final BinaryOutput out = output;
+        for (float v : floats) {
+            writeInt32(out, Float.floatToRawIntBits(v));
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public float[] readFloat() throws IOException {
+        floatData.rewind();
+        return floatMedia.readFloatArray();
+    }
+
+    @Benchmark
+    public float[] readFloatPerElement() throws IOException {
+        // skip type byte and packed length
+        floatData.position(floatData.capacity() - 4 * length);
+        final BinaryInput in = floatInput;
+        final float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = Float.intBitsToFloat(readInt32(in));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ByteBuffer writeDouble() throws IOException {
+        buffer.clear();
+        writableMedia.writeDoubleArray(doubles);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeDoublePerElement() throws IOException {
+        buffer.clear();
+        final BinaryOutput out = output;
+        for (double v : doubles) {
+            writeInt64(out, Double.doubleToRawLongBits(v));
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public double[] readDouble() throws IOException {
+        doubleData.rewind();
+        return doubleMedia.readDoubleArray();
+    }
+
+    @Benchmark
+    public double[] readDoublePerElement() throws IOException {
+        // skip type byte and packed length
+        doubleData.position(doubleData.capacity() - 8 * length);
+        final BinaryInput in = doubleInput;
+        final double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = Double.longBitsToDouble(readInt64(in));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of benchmarks jar. Accepts the same arguments as {@link Main} and always adds {@link GCProfiler}, so each
+ * benchmark reports allocation rate ({@code gc.alloc.rate.norm} - bytes per operation) along with throughput.
+ * Help and list options ({@code -h}, {@code -l}, {@code -lp}, {@code -lprof}, {@code -lrf}) are passed to {@link Main}.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException {
+        final CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+                || options.shouldListProfilers() || options.shouldListResultFormats()) {
+            // nothing to run, let JMH print requested information
+            Main.main(args);
+            return;
+        }
+        new Runner(
+                new OptionsBuilder()
+                        .parent(options)
+                        .addProfiler(GCProfiler.class)
+                        .build()
+        ).run();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.codecs.RuntimeCodecs;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hand-written user type output/input with codecs built at run time by
+ * {@link com.github.ykiselev.binary.format.codecs.RuntimeCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    static final class Item {
+
+        long id;
+
+        int quantity;
+
+        double price;
+
+        boolean active;
+
+        String name;
+
+        int[] tags;
+    }
+
+    private static final UserTypeOutput HAND_WRITTEN_OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            final Item item = (Item) value;
+            media.writeLong(item.id);
+            media.writeInt(item.quantity);
+            media.writeDouble(item.price);
+            media.writeBoolean(item.active);
+            media.writeString(item.name);
+            media.writeIntArray(item.tags);
+        }
+    };
+
+    private static final UserTypeInput HAND_WRITTEN_INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            final Item item = new Item();
+            item.id = media.readLong();
+            item.quantity = media.readInt();
+            item.price = media.readDouble();
+            item.active = media.readBoolean();
+            item.name = media.readString();
+            item.tags = media.readIntArray();
+            return clazz.cast(item);
+        }
+    };
+
+    @Param({"hand-written", "runtime"})
+    String codec;
+
+    private final Item[] items = new Item[64];
+
+    private ByteArrayBinaryOutput output;
+
+    private WritableMedia writer;
+
+    private ByteArrayBinaryInput input;
+
+    private ReadableMedia reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        for (int i = 0; i < this.items.length; i++) {
+            final Item item = new Item();
+            item.id = 1000L * i;
+            item.quantity = i;
+            item.price = i * 1.5;
+            item.active = i % 2 == 0;
+            item.name = "item-" + i;
+            item.tags = new int[]{i, i + 1};
+            this.items[i] = item;
+        }
+        final boolean runtime = "runtime".equals(this.codec);
+        this.output = new ByteArrayBinaryOutput(16 * 1024);
+        this.writer = new SimpleWritableMedia(this.output, runtime ? RuntimeCodecs.INSTANCE : HAND_WRITTEN_OUTPUT);
+        write();
+        this.input = new ByteArrayBinaryInput(this.output.toByteArray());
+        this.reader = new SimpleReadableMedia(this.input, runtime ? RuntimeCodecs.INSTANCE : HAND_WRITTEN_INPUT);
+    }
+
+    @Benchmark
+    public ByteArrayBinaryOutput write() throws IOException {
+        this.output.reset();
+        this.writer.writeObjectArray(this.items);
+        return this.output;
+    }
+
+    @Benchmark
+    public Item[] read() throws IOException {
+        this.input.offset(0);
+        return this.reader.readObjectArray(Item.class);
+    }
+}
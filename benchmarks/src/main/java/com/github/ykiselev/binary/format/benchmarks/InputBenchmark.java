@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.input.BinaryInput;
+import com.github.ykiselev.binary.format.input.BufferedBinaryInput;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.ByteBufferBinaryInput;
+import com.github.ykiselev.binary.format.input.ChannelBinaryInput;
+import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
+import com.github.ykiselev.binary.format.input.MappedFileBinaryInput;
+import com.github.ykiselev.binary.format.input.SliceableBinaryInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the same payload (records of byte, short, int, long and 32-byte block) with each {@link BinaryInput}
+ * implementation. Memory-backed inputs are rewound before each operation, stream-based inputs are re-created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    private static final int RECORD_SIZE = 1 + 2 + 4 + 8 + 32;
+
+    @Param({"byte-array", "heap-buffer", "direct-buffer", "stream", "buffered-stream", "channel", "mapped-file"})
+    String input;
+
+    private byte[] data;
+
+    private final byte[] block = new byte[32];
+
+    private SliceableBinaryInput sliceable;
+
+    private File file;
+
+    private RandomAccessFile raf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = new byte[RECORDS * RECORD_SIZE];
+        new Random(1).nextBytes(data);
+        switch (input) {
+            case "byte-array":
+                sliceable = new ByteArrayBinaryInput(data);
+                break;
+
+            case "heap-buffer":
+                sliceable = new ByteBufferBinaryInput(ByteBuffer.wrap(data));
+                break;
+
+            case "direct-buffer":
+                final ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+                direct.put(data).flip();
+                sliceable = new ByteBufferBinaryInput(direct);
+                break;
+
+            case "mapped-file":
+                file = File.createTempFile("input-benchmark", ".bin");
+                try (FileOutputStream os = new FileOutputStream(file)) {
+                    os.write(data);
+                }
+                raf = new RandomAccessFile(file, "r");
+                sliceable = new MappedFileBinaryInput(raf.getChannel());
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (raf != null) {
+            raf.close();
+        }
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    private BinaryInput open() {
+        if (sliceable != null) {
+            sliceable.offset(0);
+            return sliceable;
+        }
+        switch (input) {
+            case "stream":
+                return new InputStreamBinaryInput(new ByteArrayInputStream(data));
+
+            case "buffered-stream":
+                return new BufferedBinaryInput(new ByteArrayInputStream(data));
+
+            case "channel":
+                return new ChannelBinaryInput(Channels.newChannel(new ByteArrayInputStream(data)));
+
+            default:
+                throw new IllegalArgumentException(input);
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) throws IOException {
+        final BinaryInput in = open();
+        for (int i = 0; i < RECORDS; i++) {
+            bh.consume(in.read());
+            bh.consume(in.readShortLE());
+            bh.consume(in.readIntLE());
+            bh.consume(in.readLongLE());
+            in.read(block, block.length);
+        }
+        bh.consume(block);
+    }
+
+    @Benchmark
+    public void skip(Blackhole bh) throws IOException {
+        final BinaryInput in = open();
+        for (int i = 0; i < RECORDS; i++) {
+            bh.consume(in.read());
+            in.skip(RECORD_SIZE - 1);
+        }
+    }
+}
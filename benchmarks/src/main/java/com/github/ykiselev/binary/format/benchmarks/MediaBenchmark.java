@@ -0,0 +1,360 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single value write/read methods of {@link SimpleWritableMedia} and {@link SimpleReadableMedia} over byte arrays.
+ * Each operation writes or reads {@link #BATCH} values of random magnitude, score is reported per value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaBenchmark {
+
+    static final int BATCH = 256;
+
+    private static final int BYTE = 0;
+
+    private static final int BOOLEAN = 1;
+
+    private static final int CHAR = 2;
+
+    private static final int SHORT = 3;
+
+    private static final int INT = 4;
+
+    private static final int LONG = 5;
+
+    private static final int FLOAT = 6;
+
+    private static final int DOUBLE = 7;
+
+    private static final int PACKED = 8;
+
+    private static final int BYTES = 9;
+
+    private static final int TYPES = 10;
+
+    private final byte[] bytes = new byte[BATCH];
+
+    private final char[] chars = new char[BATCH];
+
+    private final short[] shorts = new short[BATCH];
+
+    private final int[] ints = new int[BATCH];
+
+    private final long[] longs = new long[BATCH];
+
+    private final float[] floats = new float[BATCH];
+
+    private final double[] doubles = new double[BATCH];
+
+    private final int[] packed = new int[BATCH];
+
+    private final byte[] block = new byte[32];
+
+    private ByteArrayBinaryOutput output;
+
+    private WritableMedia writer;
+
+    private final ByteArrayBinaryInput[] inputs = new ByteArrayBinaryInput[TYPES];
+
+    private final ReadableMedia[] readers = new ReadableMedia[TYPES];
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random random = new Random(1);
+        random.nextBytes(bytes);
+        for (int i = 0; i < BATCH; i++) {
+            // mix of 1, 2, 4 and 8 byte encodings
+            final long value = random.nextLong() >> (8 * random.nextInt(8));
+            chars[i] = (char) value;
+            shorts[i] = (short) value;
+            ints[i] = (int) value;
+            longs[i] = value;
+            floats[i] = random.nextFloat();
+            doubles[i] = random.nextDouble();
+            packed[i] = (int) (value & Integer.MAX_VALUE);
+        }
+        output = new ByteArrayBinaryOutput(BATCH * 64);
+        writer = new SimpleWritableMedia(output, null);
+        for (int type = 0; type < TYPES; type++) {
+            output.reset();
+            write(type);
+            inputs[type] = new ByteArrayBinaryInput(output.toByteArray());
+            readers[type] = new SimpleReadableMedia(inputs[type], null);
+        }
+    }
+
+    private void write(int type) throws IOException {
+        output.reset();
+        final WritableMedia media = writer;
+        for (int i = 0; i < BATCH; i++) {
+            switch (type) {
+                case BYTE:
+                    media.writeByte(bytes[i]);
+                    break;
+
+                case BOOLEAN:
+                    media.writeBoolean(bytes[i] < 0);
+                    break;
+
+                case CHAR:
+                    media.writeChar(chars[i]);
+                    break;
+
+                case SHORT:
+                    media.writeShort(shorts[i]);
+                    break;
+
+                case INT:
+                    media.writeInt(ints[i]);
+                    break;
+
+                case LONG:
+                    media.writeLong(longs[i]);
+                    break;
+
+                case FLOAT:
+                    media.writeFloat(floats[i]);
+                    break;
+
+                case DOUBLE:
+                    media.writeDouble(doubles[i]);
+                    break;
+
+                case PACKED:
+                    media.writePackedInteger(packed[i]);
+                    break;
+
+                case BYTES:
+                    media.writeByteArray(block);
+                    break;
+            }
+        }
+    }
+
+    private ReadableMedia reader(int type) {
+        inputs[type].offset(0);
+        return readers[type];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeByte() throws IOException {
+        write(BYTE);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeBoolean() throws IOException {
+        write(BOOLEAN);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeChar() throws IOException {
+        write(CHAR);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeShort() throws IOException {
+        write(SHORT);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeInt() throws IOException {
+        write(INT);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeLong() throws IOException {
+        write(LONG);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeFloat() throws IOException {
+        write(FLOAT);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeDouble() throws IOException {
+        write(DOUBLE);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writePackedInteger() throws IOException {
+        write(PACKED);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput writeByteArray() throws IOException {
+        write(BYTES);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readByte(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(BYTE);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readByte());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readBoolean(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(BOOLEAN);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readBoolean());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readChar(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(CHAR);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readChar());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readShort(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(SHORT);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readShort());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readInt(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(INT);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readInt());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readLong(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(LONG);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readLong());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readFloat(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(FLOAT);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readFloat());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readDouble(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(DOUBLE);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readDouble());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readPackedInteger(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(PACKED);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readPackedInteger());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readByteArray(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(BYTES);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readByteArray());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readByteSlice(Blackhole bh) throws IOException {
+        final ReadableMedia media = reader(BYTES);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(media.readByteSlice());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void skipValue() throws IOException {
+        final ReadableMedia media = reader(LONG);
+        for (int i = 0; i < BATCH; i++) {
+            media.skipValue();
+        }
+    }
+}
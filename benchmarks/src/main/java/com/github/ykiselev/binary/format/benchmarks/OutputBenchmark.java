@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.output.BufferedBinaryOutput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.ByteBufferBinaryOutput;
+import com.github.ykiselev.binary.format.output.ChannelBinaryOutput;
+import com.github.ykiselev.binary.format.output.ChannelSink;
+import com.github.ykiselev.binary.format.output.MappedFileBinaryOutput;
+import com.github.ykiselev.binary.format.output.OutputStreamBinaryOutput;
+import com.github.ykiselev.binary.format.output.OutputStreamSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the same payload (records of byte, short, int, long and 32-byte block) with each {@link BinaryOutput}
+ * implementation. Stream and channel based outputs write to a stream which discards data. Mapped file output is
+ * re-created on each iteration as it can not be rewound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    private static final int RECORD_SIZE = 1 + 2 + 4 + 8 + 32;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+        }
+    };
+
+    @Param({"byte-array", "heap-buffer", "direct-buffer", "stream", "buffered-stream", "buffered-channel", "channel", "mapped-file"})
+    String output;
+
+    private final byte[] block = new byte[32];
+
+    private BinaryOutput binaryOutput;
+
+    private ByteArrayBinaryOutput arrayOutput;
+
+    private ByteBuffer buffer;
+
+    private File file;
+
+    private RandomAccessFile raf;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        switch (output) {
+            case "byte-array":
+                arrayOutput = new ByteArrayBinaryOutput(RECORDS * RECORD_SIZE);
+                binaryOutput = arrayOutput;
+                break;
+
+            case "heap-buffer":
+                buffer = ByteBuffer.allocate(RECORDS * RECORD_SIZE);
+                binaryOutput = new ByteBufferBinaryOutput(buffer);
+                break;
+
+            case "direct-buffer":
+                buffer = ByteBuffer.allocateDirect(RECORDS * RECORD_SIZE);
+                binaryOutput = new ByteBufferBinaryOutput(buffer);
+                break;
+
+            case "stream":
+                binaryOutput = new OutputStreamBinaryOutput(DISCARD);
+                break;
+
+            case "buffered-stream":
+                binaryOutput = new BufferedBinaryOutput(new OutputStreamSink(DISCARD));
+                break;
+
+            case "buffered-channel":
+                binaryOutput = new BufferedBinaryOutput(new ChannelSink(Channels.newChannel(DISCARD)));
+                break;
+
+            case "channel":
+                binaryOutput = new ChannelBinaryOutput(Channels.newChannel(DISCARD));
+                break;
+
+            case "mapped-file":
+                file = File.createTempFile("output-benchmark", ".bin");
+                raf = new RandomAccessFile(file, "rw");
+                binaryOutput = new MappedFileBinaryOutput(raf.getChannel());
+                break;
+
+            default:
+                throw new IllegalArgumentException(output);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (raf != null) {
+            binaryOutput.close();
+            raf.close();
+            file.delete();
+            raf = null;
+        }
+    }
+
+    @Benchmark
+    public BinaryOutput write() throws IOException {
+        if (arrayOutput != null) {
+            arrayOutput.reset();
+        } else if (buffer != null) {
+            buffer.clear();
+        }
+        final BinaryOutput out = binaryOutput;
+        for (int i = 0; i < RECORDS; i++) {
+            out.write(i);
+            out.writeShortLE((short) i);
+            out.writeIntLE(i);
+            out.writeLongLE(i);
+            out.write(block, 0, block.length);
+        }
+        out.flush();
+        return out;
+    }
+}
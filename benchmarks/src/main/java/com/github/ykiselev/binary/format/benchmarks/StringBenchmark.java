@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.strings.ClockStringCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String encoding/decoding for ASCII-only, two byte (cyrillic) and mixed content of various lengths.
+ * Each operation writes or reads {@link #BATCH} strings taken from the pool of {@link #DISTINCT} distinct values,
+ * score is reported per string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringBenchmark {
+
+    static final int BATCH = 64;
+
+    static final int DISTINCT = 16;
+
+    @Param({"ascii", "cyrillic", "mixed"})
+    String kind;
+
+    @Param({"8", "64", "512"})
+    int length;
+
+    private final String[] strings = new String[BATCH];
+
+    private ByteArrayBinaryOutput output;
+
+    private WritableMedia writer;
+
+    private ByteArrayBinaryInput input;
+
+    private ReadableMedia reader;
+
+    private ByteArrayBinaryInput cachedInput;
+
+    private ReadableMedia cachedReader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random random = new Random(1);
+        final String[] pool = new String[DISTINCT];
+        for (int i = 0; i < DISTINCT; i++) {
+            pool[i] = string(random);
+        }
+        for (int i = 0; i < BATCH; i++) {
+            strings[i] = pool[random.nextInt(DISTINCT)];
+        }
+        output = new ByteArrayBinaryOutput(BATCH * (3 * length + 8));
+        writer = new SimpleWritableMedia(output, null);
+        write();
+        final byte[] data = output.toByteArray();
+        input = new ByteArrayBinaryInput(data);
+        reader = new SimpleReadableMedia(input, null);
+        cachedInput = new ByteArrayBinaryInput(data);
+        cachedReader = new SimpleReadableMedia(cachedInput, null, new ClockStringCache(2 * DISTINCT, 3 * length));
+    }
+
+    private String string(Random random) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            final char ascii = (char) ('a' + random.nextInt(26));
+            final char cyrillic = (char) ('а' + random.nextInt(32));
+            switch (kind) {
+                case "ascii":
+                    sb.append(ascii);
+                    break;
+
+                case "cyrillic":
+                    sb.append(cyrillic);
+                    break;
+
+                default:
+                    sb.append(random.nextBoolean() ? ascii : cyrillic);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteArrayBinaryOutput write() throws IOException {
+        output.reset();
+        for (String s : strings) {
+            writer.writeString(s);
+        }
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void read(Blackhole bh) throws IOException {
+        input.offset(0);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(reader.readString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readCached(Blackhole bh) throws IOException {
+        cachedInput.offset(0);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(cachedReader.readString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void readAsCharSequence(Blackhole bh) throws IOException {
+        input.offset(0);
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume(reader.readStringAsCharSequence());
+        }
+    }
+}
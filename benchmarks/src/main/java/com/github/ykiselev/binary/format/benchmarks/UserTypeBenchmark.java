@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.benchmarks;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import com.github.ykiselev.binary.format.tokens.Token;
+import com.github.ykiselev.binary.format.tokens.TokenReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nested user types (orders with arrays of lines and shared products): full write/read, unknown tail
+ * pass-through via {@link ReadableMedia#readRest()}, skipping and token-based aggregation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserTypeBenchmark {
+
+    static final class Product {
+
+        final String name;
+
+        final long id;
+
+        Product(String name, long id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+
+    static final class Line {
+
+        final Product product;
+
+        final int quantity;
+
+        final double price;
+
+        Line(Product product, int quantity, double price) {
+            this.product = product;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+
+    static final class Order {
+
+        final long id;
+
+        final String customer;
+
+        final Line[] lines;
+
+        final String note;
+
+        final long created;
+
+        final ByteBuffer rest;
+
+        Order(long id, String customer, Line[] lines, String note, long created, ByteBuffer rest) {
+            this.id = id;
+            this.customer = customer;
+            this.lines = lines;
+            this.note = note;
+            this.created = created;
+            this.rest = rest;
+        }
+    }
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            if (value instanceof Order) {
+                final Order order = (Order) value;
+                media.writeLong(order.id);
+                media.writeString(order.customer);
+                if (order.rest != null) {
+                    media.writeRest(order.rest);
+                } else {
+                    media.writeString(order.note);
+                    media.writeLong(order.created);
+                    media.writeObjectArray(order.lines);
+                }
+            } else if (value instanceof Line) {
+                final Line line = (Line) value;
+                media.writeObject(line.product);
+                media.writeInt(line.quantity);
+                media.writeDouble(line.price);
+            } else {
+                final Product product = (Product) value;
+                media.writeString(product.name);
+                media.writeLong(product.id);
+            }
+        }
+    };
+
+    /**
+     * Reads all the fields.
+     */
+    private static final UserTypeInput INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            final Object result;
+            if (clazz == Order.class) {
+                final long id = media.readLong();
+                final String customer = media.readString();
+                final String note = media.readString();
+                final long created = media.readLong();
+                result = new Order(id, customer, media.readObjectArray(Line.class), note, created, null);
+            } else if (clazz == Line.class) {
+                result = new Line(
+                        media.readObject(Product.class),
+                        media.readInt(),
+                        media.readDouble()
+                );
+            } else {
+                result = new Product(media.readString(), media.readLong());
+            }
+            return clazz.cast(result);
+        }
+    };
+
+    /**
+     * Emulates previous version of model which knows nothing about order note, creation time and lines, so they are
+     * forwarded as unknown tail (including object array).
+     */
+    private static final UserTypeInput PARTIAL_INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            if (clazz != Order.class) {
+                return INPUT.read(media, clazz);
+            }
+            return clazz.cast(
+                    new Order(
+                            media.readLong(),
+                            media.readString(),
+                            null,
+                            null,
+                            0,
+                            media.readRest()
+                    )
+            );
+        }
+    };
+
+    private static final int ORDERS = 16;
+
+    private static final int LINES = 8;
+
+    @Param({"0", "1"})
+    int features;
+
+    private final Order[] orders = new Order[ORDERS];
+
+    private ByteArrayBinaryOutput output;
+
+    private ByteArrayBinaryInput input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random random = new Random(1);
+        final Product[] products = new Product[LINES];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product("product-" + i, random.nextLong());
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            final Line[] lines = new Line[LINES];
+            for (int k = 0; k < LINES; k++) {
+                lines[k] = new Line(products[random.nextInt(products.length)], 1 + random.nextInt(100), random.nextDouble());
+            }
+            orders[i] = new Order(i, "customer-" + random.nextInt(4), lines, "note-" + i, random.nextLong(), null);
+        }
+        output = new ByteArrayBinaryOutput(64 * 1024);
+        write();
+        input = new ByteArrayBinaryInput(output.toByteArray());
+    }
+
+    private ReadableMedia reader(UserTypeInput uti) {
+        input.offset(0);
+        return new SimpleReadableMedia(input, uti, null, features);
+    }
+
+    @Benchmark
+    public ByteArrayBinaryOutput write() throws IOException {
+        output.reset();
+        new SimpleWritableMedia(output, OUTPUT, features).writeObjectArray(orders);
+        return output;
+    }
+
+    @Benchmark
+    public Order[] read() throws IOException {
+        return reader(INPUT).readObjectArray(Order.class);
+    }
+
+    @Benchmark
+    public Order[] readRest() throws IOException {
+        return reader(PARTIAL_INPUT).readObjectArray(Order.class);
+    }
+
+    @Benchmark
+    public ByteArrayBinaryOutput passThrough() throws IOException {
+        final Order[] partial = readRest();
+        output.reset();
+        new SimpleWritableMedia(output, OUTPUT, features).writeObjectArray(partial);
+        return output;
+    }
+
+    @Benchmark
+    public void skip() throws IOException {
+        reader(null).skipValue();
+    }
+
+    @Benchmark
+    public void tokens(Blackhole bh) throws IOException {
+        input.offset(0);
+        final TokenReader reader = new TokenReader(input, features);
+        long total = 0;
+        Token token;
+        while ((token = reader.next()) != null) {
+            if (token == Token.INT) {
+                total += reader.intValue();
+            }
+        }
+        bh.consume(total);
+    }
+}
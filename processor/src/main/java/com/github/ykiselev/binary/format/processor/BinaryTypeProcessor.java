@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates {@link com.github.ykiselev.binary.format.codecs.Codec} for each class marked with
+ * {@link com.github.ykiselev.binary.format.codecs.BinaryType} (see {@link CodecGenerator}) and single registry class
+ * with static method {@code registry()} returning {@link com.github.ykiselev.binary.format.codecs.CodecRegistry} of all
+ * generated codecs.
+ * <p>
+ * Registry class name may be set with {@code -Abinary.format.registry=com.example.Codecs}, by default class
+ * {@code BinaryTypeCodecs} is generated in the package of first (by name) annotated class.
+ */
+@SupportedAnnotationTypes(BinaryTypeProcessor.ANNOTATION)
+@SupportedOptions(BinaryTypeProcessor.REGISTRY)
+public final class BinaryTypeProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "com.github.ykiselev.binary.format.codecs.BinaryType";
+
+    static final String REGISTRY = "binary.format.registry";
+
+    static final String DEFAULT_REGISTRY = "BinaryTypeCodecs";
+
+    /**
+     * Qualified names of generated codecs
+     */
+    private final List<String> codecs = new ArrayList<String>();
+
+    private String firstType;
+
+    private boolean registryWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        boolean found = false;
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                found = true;
+                generate(element);
+            }
+        }
+        // registry is written in the round after the last one with annotated classes so it's compiled along with codecs
+        if (!found && !this.registryWritten && !this.codecs.isEmpty() && !roundEnv.processingOver()) {
+            this.registryWritten = true;
+            writeRegistry();
+        }
+        return true;
+    }
+
+    private void generate(Element element) {
+        if (!(element instanceof TypeElement)) {
+            this.processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "@BinaryType is applicable to classes only", element
+            );
+            return;
+        }
+        final TypeElement type = (TypeElement) element;
+        final CodecGenerator generator = new CodecGenerator(this.processingEnv, type);
+        if (!generator.validate()) {
+            return;
+        }
+        try {
+            generator.write();
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "Unable to write codec: " + e, element
+            );
+            return;
+        }
+        this.codecs.add(generator.qualifiedName());
+        final String name = type.getQualifiedName().toString();
+        if (this.firstType == null || name.compareTo(this.firstType) < 0) {
+            this.firstType = name;
+        }
+    }
+
+    private String registryName() {
+        final String option = this.processingEnv.getOptions().get(REGISTRY);
+        if (option != null) {
+            return option;
+        }
+        final TypeElement type = this.processingEnv.getElementUtils().getTypeElement(this.firstType);
+        final String pkg = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        return pkg.isEmpty() ? DEFAULT_REGISTRY : pkg + "." + DEFAULT_REGISTRY;
+    }
+
+    private void writeRegistry() {
+        final String name = registryName();
+        final int dot = name.lastIndexOf('.');
+        try (Writer w = this.processingEnv.getFiler().createSourceFile(name).openWriter()) {
+            if (dot > 0) {
+                w.append("package ").append(name.substring(0, dot)).append(";\n\n");
+            }
+            final String simpleName = name.substring(dot + 1);
+            w.append("/**\n")
+                    .append(" * Registry of all codecs generated from @BinaryType classes. Generated by binary-format-processor, do not edit.\n")
+                    .append(" */\n")
+                    .append("public final class ").append(simpleName).append(" {\n\n")
+                    .append("    private ").append(simpleName).append("() {\n")
+                    .append("    }\n\n")
+                    .append("    public static com.github.ykiselev.binary.format.codecs.CodecRegistry registry() {\n")
+                    .append("        return new com.github.ykiselev.binary.format.codecs.CodecRegistry(");
+            for (int i = 0; i < this.codecs.size(); i++) {
+                w.append(i > 0 ? ",\n" : "\n")
+                        .append("                new ").append(this.codecs.get(i)).append("()");
+            }
+            w.append("\n        );\n")
+                    .append("    }\n")
+                    .append("}\n");
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "Unable to write codec registry " + name + ": " + e
+            );
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.processor;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates source of codec for single user type. Each serialized field becomes one straight-line call to
+ * {@link com.github.ykiselev.binary.format.WritableMedia} and {@link com.github.ykiselev.binary.format.ReadableMedia},
+ * so there is no reflection and no per-field dispatch at run time.
+ */
+final class CodecGenerator {
+
+    private static final String STRING = "java.lang.String";
+
+    private static final String OBJECT = "java.lang.Object";
+
+    private final ProcessingEnvironment env;
+
+    private final TypeElement type;
+
+    private final List<String> writes = new ArrayList<String>();
+
+    private final List<String> reads = new ArrayList<String>();
+
+    private boolean valid = true;
+
+    CodecGenerator(ProcessingEnvironment env, TypeElement type) {
+        this.env = env;
+        this.type = type;
+    }
+
+    /**
+     * @return the package of user type (and codec)
+     */
+    String packageName() {
+        return this.env.getElementUtils().getPackageOf(this.type).getQualifiedName().toString();
+    }
+
+    /**
+     * @return the simple name of codec class
+     */
+    String simpleName() {
+        final StringBuilder sb = new StringBuilder(this.type.getSimpleName());
+        Element e = this.type.getEnclosingElement();
+        while (e instanceof TypeElement) {
+            sb.insert(0, '_').insert(0, e.getSimpleName());
+            e = e.getEnclosingElement();
+        }
+        return sb.append("Codec").toString();
+    }
+
+    /**
+     * @return the fully qualified name of codec class
+     */
+    String qualifiedName() {
+        final String pkg = packageName();
+        return pkg.isEmpty() ? simpleName() : pkg + "." + simpleName();
+    }
+
+    /**
+     * Checks user type and its fields, all the problems are reported to {@link Messager}.
+     *
+     * @return true if codec can be generated
+     */
+    boolean validate() {
+        if (this.type.getKind() != ElementKind.CLASS) {
+            return error(this.type, "@BinaryType is applicable to classes only");
+        }
+        final Element enclosing = this.type.getEnclosingElement();
+        if (!(enclosing instanceof PackageElement) && this.type.getNestingKind() != NestingKind.MEMBER) {
+            return error(this.type, "@BinaryType class should be top-level or static nested");
+        }
+        if (this.type.getNestingKind() == NestingKind.MEMBER && !this.type.getModifiers().contains(Modifier.STATIC)) {
+            return error(this.type, "@BinaryType nested class should be static");
+        }
+        final boolean isPrivate = this.type.getModifiers().contains(Modifier.PRIVATE);
+        if (isPrivate || this.type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return error(this.type, "@BinaryType class should be non-private and non-abstract");
+        }
+        if (!this.type.getTypeParameters().isEmpty()) {
+            return error(this.type, "@BinaryType class should not be generic");
+        }
+        if (!hasDefaultConstructor()) {
+            return error(this.type, "@BinaryType class should have non-private no-arg constructor");
+        }
+        final Set<String> names = new HashSet<String>();
+        for (TypeElement owner : hierarchy()) {
+            for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+                    if (names.add(field.getSimpleName().toString())) {
+                        addField(field);
+                    } else {
+                        error(field, "Serialized field hides inherited field with the same name");
+                    }
+                }
+            }
+        }
+        return this.valid;
+    }
+
+    /**
+     * @return the user type and its superclasses (except {@link Object}), superclasses first
+     */
+    private List<TypeElement> hierarchy() {
+        final List<TypeElement> result = new ArrayList<TypeElement>();
+        for (TypeElement e = this.type; e != null; ) {
+            result.add(0, e);
+            final TypeMirror superclass = e.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                break;
+            }
+            e = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (OBJECT.equals(e.getQualifiedName().toString())) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private boolean hasDefaultConstructor() {
+        for (ExecutableElement c : ElementFilter.constructorsIn(this.type.getEnclosedElements())) {
+            if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean error(Element element, String message) {
+        if (element.getKind() == ElementKind.FIELD && element.getEnclosingElement() != this.type) {
+            // inherited field may come from class file, so error is reported on user type
+            message = message + " (inherited field " + element.getEnclosingElement() + "." + element.getSimpleName() + ")";
+            element = this.type;
+        }
+        this.env.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        this.valid = false;
+        return false;
+    }
+
+    private void addField(VariableElement field) {
+        if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)) {
+            error(field, "Serialized field should be non-private and non-final (mark it transient to skip)");
+            return;
+        }
+        final PackageElement owner = this.env.getElementUtils().getPackageOf(field);
+        if (!owner.getQualifiedName().contentEquals(packageName()) && !field.getModifiers().contains(Modifier.PUBLIC)) {
+            error(field, "Serialized field of superclass from other package should be public");
+            return;
+        }
+        final String name = field.getSimpleName().toString();
+        final TypeMirror fieldType = field.asType();
+        final String suffix = primitive(fieldType);
+        if (suffix != null) {
+            add(name, "write" + suffix + "(value." + name + ")", "read" + suffix + "()");
+        } else if (fieldType.getKind() == TypeKind.DECLARED) {
+            if (STRING.equals(fieldType.toString())) {
+                add(name, "writeString(value." + name + ")", "readString()");
+            } else if (isUserType(field, fieldType)) {
+                add(name, "writeObject(value." + name + ")", "readObject(" + fieldType + ".class)");
+            }
+        } else if (fieldType.getKind() == TypeKind.ARRAY) {
+            final TypeMirror component = ((ArrayType) fieldType).getComponentType();
+            final String arraySuffix = primitive(component);
+            if (arraySuffix != null && component.getKind() != TypeKind.BOOLEAN) {
+                add(name, "write" + arraySuffix + "Array(value." + name + ")", "read" + arraySuffix + "Array()");
+            } else if (component.getKind() == TypeKind.DECLARED && !STRING.equals(component.toString())) {
+                if (isUserType(field, component)) {
+                    add(name, "writeObjectArray(value." + name + ")", "readObjectArray(" + component + ".class)");
+                }
+            } else {
+                error(field, "Unsupported array type: " + fieldType);
+            }
+        } else {
+            error(field, "Unsupported field type: " + fieldType);
+        }
+    }
+
+    private boolean isUserType(VariableElement field, TypeMirror type) {
+        final Types types = this.env.getTypeUtils();
+        final DeclaredType declared = (DeclaredType) type;
+        if (!declared.getTypeArguments().isEmpty()) {
+            return error(field, "Parameterized types are not supported: " + type);
+        }
+        if (declared.asElement().getKind() == ElementKind.ENUM) {
+            return error(field, "Enums are not supported: " + type);
+        }
+        try {
+            types.unboxedType(type);
+            return error(field, "Boxed primitives are not supported: " + type);
+        } catch (IllegalArgumentException e) {
+            // not a boxed primitive
+        }
+        for (AnnotationMirror annotation : declared.asElement().getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (BinaryTypeProcessor.ANNOTATION.contentEquals(annotationType.getQualifiedName())) {
+                return true;
+            }
+        }
+        return error(field, "Type of field should be @BinaryType class: " + type);
+    }
+
+    private void add(String field, String write, String read) {
+        this.writes.add("media." + write + ";");
+        this.reads.add("value." + field + " = media." + read + ";");
+    }
+
+    /**
+     * @param type the type to check
+     * @return the suffix of media method for primitive type or {@code null} if type is not primitive
+     */
+    private static String primitive(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Boolean";
+
+            case BYTE:
+                return "Byte";
+
+            case CHAR:
+                return "Char";
+
+            case SHORT:
+                return "Short";
+
+            case INT:
+                return "Int";
+
+            case LONG:
+                return "Long";
+
+            case FLOAT:
+                return "Float";
+
+            case DOUBLE:
+                return "Double";
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Writes codec source. Should be called only if {@link #validate()} returned true.
+     *
+     * @throws IOException if I/O error occurred
+     */
+    void write() throws IOException {
+        final String name = this.type.getQualifiedName().toString();
+        try (Writer w = this.env.getFiler().createSourceFile(qualifiedName(), this.type).openWriter()) {
+            if (!packageName().isEmpty()) {
+                w.append("package ").append(packageName()).append(";\n\n");
+            }
+            w.append("/**\n")
+                    .append(" * Codec for {@link ").append(name).append("}. Generated by binary-format-processor, do not edit.\n")
+                    .append(" */\n")
+                    .append("public final class ").append(simpleName())
+                    .append(" implements com.github.ykiselev.binary.format.codecs.Codec<").append(name).append("> {\n\n")
+                    .append("    @Override\n")
+                    .append("    public Class<").append(name).append("> type() {\n")
+                    .append("        return ").append(name).append(".class;\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public void write(com.github.ykiselev.binary.format.WritableMedia media, ")
+                    .append(name).append(" value) throws java.io.IOException {\n");
+            for (String line : this.writes) {
+                w.append("        ").append(line).append('\n');
+            }
+            w.append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public ").append(name)
+                    .append(" read(com.github.ykiselev.binary.format.ReadableMedia media) throws java.io.IOException {\n")
+                    .append("        final ").append(name).append(" value = new ").append(name).append("();\n")
+                    .append("        media.publish(value);\n");
+            for (String line : this.reads) {
+                w.append("        ").append(line).append('\n');
+            }
+            w.append("        return value;\n")
+                    .append("    }\n")
+                    .append("}\n");
+        }
+    }
+}
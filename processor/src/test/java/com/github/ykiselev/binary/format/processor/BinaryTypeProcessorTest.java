@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.processor;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.codecs.CodecRegistry;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Classes of this package marked with {@code @BinaryType} are compiled with processor, so generated codecs and
+ * {@link BinaryTypeCodecs} registry are available here.
+ */
+public class BinaryTypeProcessorTest {
+
+    private static final CodecRegistry REGISTRY = BinaryTypeCodecs.registry();
+
+    private static Order order() {
+        final Order order = new Order();
+        order.id = 1234567890123L;
+        order.customer = "Иван";
+        order.paid = true;
+        order.flags = -1;
+        order.code = 'ж';
+        order.priority = 300;
+        order.quantity = 70000;
+        order.discount = 0.5f;
+        order.total = 123.45;
+        order.payload = new byte[]{1, 2, 3};
+        order.chars = new char[]{'a', 'b'};
+        order.shorts = new short[]{1, -1};
+        order.ints = new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+        order.longs = new long[]{Long.MIN_VALUE};
+        order.floats = new float[]{1.5f};
+        order.doubles = new double[]{2.5, -2.5};
+        order.hash = 42;
+        return order;
+    }
+
+    private static Order roundTrip(Order order, int features) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(output, REGISTRY, features).writeObject(order);
+        return new SimpleReadableMedia(
+                new ByteArrayBinaryInput(output.toByteArray()),
+                REGISTRY,
+                null,
+                features
+        ).readObject(Order.class);
+    }
+
+    @Test
+    public void shouldWriteAndReadAllFields() throws Exception {
+        final Order order = order();
+        final Order.Line line = new Order.Line();
+        line.product = "tea";
+        line.count = 2;
+        order.lines = new Order.Line[]{line};
+        order.parent = new Order();
+        final Order result = roundTrip(order, Features.NONE);
+        assertEquals(order.id, result.id);
+        assertEquals(order.customer, result.customer);
+        assertTrue(result.paid);
+        assertEquals(order.flags, result.flags);
+        assertEquals(order.code, result.code);
+        assertEquals(order.priority, result.priority);
+        assertEquals(order.quantity, result.quantity);
+        assertEquals(order.discount, result.discount, 0);
+        assertEquals(order.total, result.total, 0);
+        assertArrayEquals(order.payload, result.payload);
+        assertArrayEquals(order.chars, result.chars);
+        assertArrayEquals(order.shorts, result.shorts);
+        assertArrayEquals(order.ints, result.ints);
+        assertArrayEquals(order.longs, result.longs);
+        assertArrayEquals(order.floats, result.floats, 0);
+        assertArrayEquals(order.doubles, result.doubles, 0);
+        assertEquals(1, result.lines.length);
+        assertEquals("tea", result.lines[0].product);
+        assertEquals(2, result.lines[0].count);
+        assertFalse(result.parent.paid);
+        assertNull(result.parent.parent);
+        assertEquals(0, result.hash);
+    }
+
+    @Test
+    public void shouldReadCycles() throws Exception {
+        final Order order = order();
+        final Order.Line line = new Order.Line();
+        line.order = order;
+        order.lines = new Order.Line[]{line, null};
+        order.parent = order;
+        final Order result = roundTrip(order, Features.OBJECT_REFERENCES);
+        assertSame(result, result.parent);
+        assertSame(result, result.lines[0].order);
+        assertNull(result.lines[1]);
+    }
+
+    @Test
+    public void shouldReportUnsupportedFields() throws Exception {
+        final List<String> errors = compile(
+                "package test;\n" +
+                        "@com.github.ykiselev.binary.format.codecs.BinaryType\n" +
+                        "public class Bad {\n" +
+                        "    private int a;\n" +
+                        "    final long b = 1;\n" +
+                        "    Integer c;\n" +
+                        "    java.util.List<String> d;\n" +
+                        "    String[] e;\n" +
+                        "    boolean[] f;\n" +
+                        "    int g;\n" +
+                        "}\n"
+        );
+        assertEquals(6, errors.size());
+    }
+
+    @Test
+    public void shouldWriteInheritedFields() throws Exception {
+        final Shipment shipment = new Shipment();
+        shipment.id = 5;
+        shipment.customer = "customer";
+        shipment.carrier = "carrier";
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(output, REGISTRY).writeObject(shipment);
+        final Shipment result = new SimpleReadableMedia(new ByteArrayBinaryInput(output.toByteArray()), REGISTRY)
+                .readObject(Shipment.class);
+        assertEquals(5, result.id);
+        assertEquals("customer", result.customer);
+        assertEquals("carrier", result.carrier);
+    }
+
+    @Test
+    public void shouldRequireBinaryTypeForUserTypeFields() throws Exception {
+        final List<String> errors = compile(
+                "package test;\n" +
+                        "@com.github.ykiselev.binary.format.codecs.BinaryType\n" +
+                        "public class Bad {\n" +
+                        "    Object a;\n" +
+                        "    java.util.Date b;\n" +
+                        "    Runnable c;\n" +
+                        "    Runnable[] d;\n" +
+                        "    Bad e;\n" +
+                        "}\n"
+        );
+        assertEquals(4, errors.size());
+    }
+
+    @Test
+    public void shouldReportUnsupportedInheritedFields() throws Exception {
+        final List<String> errors = compile(
+                "package test;\n" +
+                        "class Base {\n" +
+                        "    private int a;\n" +
+                        "    int b;\n" +
+                        "    Integer c;\n" +
+                        "}\n" +
+                        "@com.github.ykiselev.binary.format.codecs.BinaryType\n" +
+                        "public class Bad extends Base {\n" +
+                        "    int b;\n" +
+                        "}\n"
+        );
+        assertEquals(3, errors.size());
+    }
+
+    @Test
+    public void shouldRequireDefaultConstructor() throws Exception {
+        final List<String> errors = compile(
+                "package test;\n" +
+                        "@com.github.ykiselev.binary.format.codecs.BinaryType\n" +
+                        "public class Bad {\n" +
+                        "    Bad(int a) {\n" +
+                        "    }\n" +
+                        "}\n"
+        );
+        assertEquals(Arrays.asList("@BinaryType class should have non-private no-arg constructor"), errors);
+    }
+
+    private static List<String> compile(String source) throws IOException {
+        final File dir = Files.createTempDirectory("processor").toFile();
+        final File file = new File(dir, "Bad.java");
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    Arrays.asList("-proc:only", "-d", dir.getPath(), "-s", dir.getPath(), "-classpath", System.getProperty("java.class.path")),
+                    null,
+                    fileManager.getJavaFileObjects(file)
+            ).call();
+        }
+        final List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(d.getMessage(null));
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.processor;
+
+import com.github.ykiselev.binary.format.codecs.BinaryType;
+
+@BinaryType
+public class Order {
+
+    static int instances;
+
+    long id;
+
+    String customer;
+
+    boolean paid;
+
+    byte flags;
+
+    char code;
+
+    short priority;
+
+    int quantity;
+
+    float discount;
+
+    double total;
+
+    byte[] payload;
+
+    char[] chars;
+
+    short[] shorts;
+
+    int[] ints;
+
+    long[] longs;
+
+    float[] floats;
+
+    double[] doubles;
+
+    Line[] lines;
+
+    Order parent;
+
+    transient int hash;
+
+    @BinaryType
+    static final class Line {
+
+        String product;
+
+        int count;
+
+        Order order;
+    }
+}
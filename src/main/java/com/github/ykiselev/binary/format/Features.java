@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format;
+
+import java.io.IOException;
+
+/**
+ * Optional features of media which change the wire format. Features are negotiated per stream, i.e. both sides of
+ * the stream should be created with the same set of features. Stream written with any feature starts with
+ * {@link #header(int)} byte (written before the first value), so reader created with different set of features
+ * fails on the first value with clear message. Lower four bits of header are zero which is never a valid type byte,
+ * so reader without features fails on the first value too. Streams without features have no header and are compatible
+ * with all readers.
+ */
+public final class Features {
+
+    /**
+     * No optional features, wire format is compatible with all readers
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Repeated strings are written as a reference to the first occurrence (see {@link Types#STRING_REF})
+     */
+    public static final int STRING_REFERENCES = 1;
+
+    /**
+     * Repeated user objects (by identity) are written as a reference to the first occurrence (see {@link Types#OBJECT_REF}).
+     * This allows to write shared and cyclic object graphs. Items of object arrays are written with {@link Types#USER_TYPE} prefix.
+     */
+    public static final int OBJECT_REFERENCES = 2;
+
+    /**
+     * Each user object starts with type id written as packed integer right after {@link Types#USER_TYPE}
+     * (see {@link com.github.ykiselev.binary.format.codecs.TypeRegistry}). Media does not interpret ids, but needs to
+     * know about them to skip, copy or tokenize objects. Items of object arrays are written with {@link Types#USER_TYPE} prefix.
+     */
+    public static final int TYPE_IDS = 4;
+
+    private Features() {
+    }
+
+    /**
+     * Returns first byte of stream written with given set of features: features in higher four bits, lower four bits
+     * are zero.
+     *
+     * @param features the set of features, not {@link #NONE}
+     * @return the header byte
+     */
+    public static int header(int features) {
+        return features << 4;
+    }
+
+    /**
+     * Checks first byte of stream
+     *
+     * @param header   the first byte of stream
+     * @param features the set of features reader was created with
+     * @throws IOException if stream was written with different set of features
+     */
+    public static void checkHeader(int header, int features) throws IOException {
+        if ((header & Types.MASK) != 0) {
+            throw new IOException("Expected header of stream with features " + features + ", got type byte: " + header);
+        }
+        if (header != header(features)) {
+            throw new IOException("Stream features mismatch, expected " + features + ", got " + (header >>> 4));
+        }
+    }
+
+    /**
+     * Checks if feature is enabled
+     *
+     * @param features the set of features
+     * @param feature  the feature to check
+     * @return true if feature is enabled
+     */
+    public static boolean isEnabled(int features, int feature) {
+        return (features & feature) == feature;
+    }
+}
@@ -19,8 +19,10 @@ package com.github.ykiselev.binary.format;
 import com.github.ykiselev.binary.format.buffers.ArrayFactory;
 import com.github.ykiselev.binary.format.input.UserTypeInput;
 import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.strings.Utf8Sequence;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Created by Y.Kiselev on 26.06.2016.
@@ -34,8 +36,29 @@ public interface ReadableMedia {
      */
     int readPackedInteger() throws IOException;
 
+    /**
+     * Returns type byte of the next value without consuming it, so readers may handle nullable and polymorphic fields
+     * without catching exceptions. Subsequent calls return the same value until next value is read or skipped.
+     * <p>
+     * Note: type byte of {@link Types#BOOLEAN} includes the value, use {@code peekType() & Types.MASK} to check the type.
+     *
+     * @return the type byte (see {@link Types})
+     * @throws IOException if I/O error occurred
+     */
+    int peekType() throws IOException;
+
     String readString() throws IOException;
 
+    /**
+     * Reads string without decoding it. If media is backed by sliceable input (array, byte buffer, mapped file) returned
+     * sequence is a view of the underlying storage, so no byte array is allocated.
+     *
+     * @return the sequence over UTF-8 bytes of string or {@code null}
+     * @throws IOException if I/O error occurred
+     * @see com.github.ykiselev.binary.format.input.SliceableBinaryInput
+     */
+    Utf8Sequence readStringAsCharSequence() throws IOException;
+
     byte readByte() throws IOException;
 
     char readChar() throws IOException;
@@ -54,8 +77,28 @@ public interface ReadableMedia {
 
     <T> T readObject(Class<T> type) throws IOException;
 
+    /**
+     * Publishes user object which is currently being read, so references to it from its own fields can be resolved.
+     * Should be called from {@link UserTypeInput#read(ReadableMedia, Class)} right after instance is created and
+     * before fields are read if cyclic object graphs are expected.
+     *
+     * @param value the instance of user object being read
+     * @see Features#OBJECT_REFERENCES
+     */
+    void publish(Object value);
+
     byte[] readByteArray() throws IOException;
 
+    /**
+     * Reads byte array as a buffer. If media is backed by sliceable input (array, byte buffer, mapped file) returned
+     * buffer is a view of the underlying storage, so no byte array is allocated.
+     *
+     * @return the buffer with array content or {@code null}
+     * @throws IOException if I/O error occurred
+     * @see com.github.ykiselev.binary.format.input.SliceableBinaryInput
+     */
+    ByteBuffer readByteSlice() throws IOException;
+
     char[] readCharArray() throws IOException;
 
     short[] readShortArray() throws IOException;
@@ -76,8 +119,38 @@ public interface ReadableMedia {
      * This method is designed to support multi-versioned object binaries.
      *
      * @param output the output to write rest of object bytes to.
-     * @param arrayFactory the array factory for temporal buffers creation.
+     * @param arrayFactory the array factory for temporal buffers creation. Buffers are released back to factory when no longer needed.
      * @throws IOException if reading error occurred (like end of stream, etc).
      */
     void readRest(BinaryOutput output, ArrayFactory arrayFactory) throws IOException;
+
+    /**
+     * Reads the rest of user object data till the <i>end marker</i> as a buffer. If media is backed by sliceable input
+     * (array, byte buffer, mapped file) returned buffer is a view of the underlying storage, so rest of object may be
+     * forwarded with {@link WritableMedia#writeRest(ByteBuffer)} without intermediate copies.
+     *
+     * @return the buffer with rest of object bytes (not including <i>end marker</i>)
+     * @throws IOException if reading error occurred (like end of stream, etc).
+     * @see #readRest(BinaryOutput, ArrayFactory)
+     * @see com.github.ykiselev.binary.format.input.SliceableBinaryInput
+     */
+    ByteBuffer readRest() throws IOException;
+
+    /**
+     * Skips next value (including arrays and nested user objects) without decoding it. String and array bodies are
+     * skipped with {@link com.github.ykiselev.binary.format.input.BinaryInput#skip(int)}, so for memory-backed inputs
+     * skipping cost does not depend on the value size.
+     *
+     * @throws IOException if reading error occurred or there is no value at current position (i.e. <i>end marker</i>)
+     */
+    void skipValue() throws IOException;
+
+    /**
+     * Skips the rest of user object fields including <i>end marker</i>.
+     * This method may only be called from {@link UserTypeInput#read(ReadableMedia, Class)} to ignore unknown fields
+     * written by next versions of model.
+     *
+     * @throws IOException if reading error occurred (like end of stream, etc).
+     */
+    void skipObject() throws IOException;
 }
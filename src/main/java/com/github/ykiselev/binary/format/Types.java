@@ -97,6 +97,66 @@ public final class Types {
      */
     public static final byte BOOLEAN = 13;
 
+    /**
+     * Reference to the string already written to the same stream (only when {@link Features#STRING_REFERENCES} is enabled).
+     * Each inline {@link #STRING} of 1 to {@link #MAX_SHARED_STRING_LENGTH} bytes is assigned next index (starting from zero)
+     * in order of appearance in stream.
+     * TYPE(1b), INDEX(1-5b)
+     */
+    public static final byte STRING_REF = 14;
+
+    /**
+     * Reference to the user object already written to the same stream (only when {@link Features#OBJECT_REFERENCES} is enabled).
+     * Each {@link #USER_TYPE} is assigned next index (starting from zero) in order of appearance in stream, i.e. outer
+     * object gets its index before any of its fields.
+     * TYPE(1b), INDEX(1-5b)
+     */
+    public static final byte OBJECT_REF = 15;
+
+    /**
+     * Maximum length (in bytes) of string which may be referenced by {@link #STRING_REF}
+     */
+    public static final int MAX_SHARED_STRING_LENGTH = 1024;
+
+    /**
+     * Checks if inline string of specified length is added to the stream's string table
+     *
+     * @param length the length of encoded string
+     * @return true if string may be referenced later
+     */
+    public static boolean isShared(int length) {
+        return length > 0 && length <= MAX_SHARED_STRING_LENGTH;
+    }
+
+    /**
+     * Returns the size of value of fixed-size type. Used by readers to skip or copy values and array items without
+     * decoding them.
+     *
+     * @param type the type byte or array item type
+     * @return the size of value in bytes or 0 if type has no fixed-size value
+     */
+    public static int sizeOf(int type) {
+        switch (type) {
+            case BYTE:
+                return 1;
+
+            case CHAR:
+            case SHORT:
+                return 2;
+
+            case INT:
+            case FLOAT:
+                return 4;
+
+            case LONG:
+            case DOUBLE:
+                return 8;
+
+            default:
+                return 0;
+        }
+    }
+
     /**
      * Checks if supplied type is an array
      *
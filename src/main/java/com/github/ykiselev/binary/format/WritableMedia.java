@@ -17,6 +17,7 @@
 package com.github.ykiselev.binary.format;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Writable media
@@ -79,4 +80,14 @@ public interface WritableMedia {
      */
     void writeRest(byte[] blob, int count) throws IOException;
 
+    /**
+     * Writes byte blob of unknown data from next versions of model (for example - buffer returned by
+     * {@link ReadableMedia#readRest()}). Blob is written with single bulk write, position of supplied buffer is not changed.
+     *
+     * @param blob the data to write (from position till the limit)
+     * @throws IOException if I/O error occurred.
+     * @see #writeRest(byte[], int)
+     */
+    void writeRest(ByteBuffer blob) throws IOException;
+
 }
@@ -28,4 +28,11 @@ public interface ArrayFactory {
      * @return the byte array with at least {@code capacity} length.
      */
     byte[] get(int capacity);
+
+    /**
+     * Returns array obtained from {@link #get(int)} back to factory. Caller should not use array after it is released.
+     *
+     * @param array the array to release
+     */
+    void release(byte[] array);
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.buffers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread safe array factory which pools released arrays. Arrays are grouped in size classes (powers of two from
+ * {@code minLength} to {@code maxLength}), each size class has a number of stripes (slots) so concurrent threads
+ * mostly access different slots. Arrays longer than {@code maxLength} are never pooled, and total length of pooled
+ * arrays never exceeds {@code maxRetained} bytes, so single large request does not pin memory forever.
+ */
+public final class PooledArrayFactory implements ArrayFactory {
+
+    private final int minLength;
+
+    private final int maxLength;
+
+    private final long maxRetained;
+
+    private final int stripes;
+
+    /**
+     * Slots of all size classes, slot of size class {@code c} and stripe {@code s} is {@code c * stripes + s}
+     */
+    private final AtomicReferenceArray<byte[]> slots;
+
+    private final AtomicLong retained = new AtomicLong();
+
+    /**
+     * @param minLength   the length of smallest pooled array (power of two)
+     * @param maxLength   the length of largest pooled array (power of two)
+     * @param maxRetained the maximum total length of pooled arrays
+     */
+    public PooledArrayFactory(int minLength, int maxLength, long maxRetained) {
+        if (Integer.bitCount(minLength) != 1 || Integer.bitCount(maxLength) != 1 || minLength > maxLength) {
+            throw new IllegalArgumentException("Bad size range: " + minLength + ".." + maxLength);
+        }
+        if (maxRetained < 0) {
+            throw new IllegalArgumentException("Bad retained size: " + maxRetained);
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.maxRetained = maxRetained;
+        this.stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.slots = new AtomicReferenceArray<byte[]>((sizeClass(maxLength) + 1) * this.stripes);
+    }
+
+    /**
+     * @return the total length of currently pooled arrays
+     */
+    public long retained() {
+        return this.retained.get();
+    }
+
+    private int sizeClass(int length) {
+        return Integer.numberOfTrailingZeros(Integer.highestOneBit(length))
+                - Integer.numberOfTrailingZeros(this.minLength);
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & (this.stripes - 1);
+    }
+
+    @Override
+    public byte[] get(int capacity) {
+        if (capacity > this.maxLength) {
+            return new byte[capacity];
+        }
+        int length = this.minLength;
+        while (length < capacity) {
+            length *= 2;
+        }
+        final int base = sizeClass(length) * this.stripes;
+        final int stripe = stripe();
+        for (int i = 0; i < this.stripes; i++) {
+            final byte[] result = this.slots.getAndSet(base + ((stripe + i) & (this.stripes - 1)), null);
+            if (result != null) {
+                this.retained.addAndGet(-length);
+                return result;
+            }
+        }
+        return new byte[length];
+    }
+
+    /**
+     * Returns array to the pool. Arrays of unsupported length are silently dropped, as well as arrays which do not fit
+     * into pool (all slots of size class are occupied or retained size limit is reached).
+     *
+     * @param array the array to release
+     */
+    @Override
+    public void release(byte[] array) {
+        if (array == null) {
+            return;
+        }
+        final int length = array.length;
+        if (length < this.minLength || length > this.maxLength || Integer.bitCount(length) != 1) {
+            return;
+        }
+        if (this.retained.addAndGet(length) > this.maxRetained) {
+            this.retained.addAndGet(-length);
+            return;
+        }
+        final int base = sizeClass(length) * this.stripes;
+        final int stripe = stripe();
+        for (int i = 0; i < this.stripes; i++) {
+            if (this.slots.compareAndSet(base + ((stripe + i) & (this.stripes - 1)), null, array)) {
+                return;
+            }
+        }
+        this.retained.addAndGet(-length);
+    }
+}
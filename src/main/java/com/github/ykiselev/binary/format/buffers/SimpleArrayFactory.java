@@ -54,4 +54,11 @@ public final class SimpleArrayFactory implements ArrayFactory {
         }
         return this.array;
     }
+
+    /**
+     * Does nothing as this factory always keeps the last created array.
+     */
+    @Override
+    public void release(byte[] array) {
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks user type for which {@link Codec} should be generated at compile time by annotation processor
+ * from {@code binary-format-processor} module. Generated codec is placed in the same package and named after
+ * the class with {@code Codec} suffix (outer class names are joined with underscore for nested classes).
+ * <p>
+ * Codec writes all non-static, non-transient fields declared by the class in declaration order, so field
+ * order is the schema. Annotated class should be top-level or static nested, should have non-private
+ * no-arg constructor and all serialized fields should be non-private and non-final.
+ * <p>
+ * Supported field types are primitives, {@link String}, arrays of primitives, other user types and arrays of them.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface BinaryType {
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+
+import java.io.IOException;
+
+/**
+ * Serializer/de-serializer of the fields of single user type. Methods are called by {@link CodecRegistry} from
+ * {@link com.github.ykiselev.binary.format.output.UserTypeOutput} and {@link com.github.ykiselev.binary.format.input.UserTypeInput},
+ * so {@link com.github.ykiselev.binary.format.Types#USER_TYPE} and end marker are handled by media.
+ */
+public interface Codec<T> {
+
+    /**
+     * @return the user type handled by this codec
+     */
+    Class<T> type();
+
+    /**
+     * @param media the media to write fields to
+     * @param value the value to write (never {@code null})
+     * @throws IOException if I/O error occurred
+     */
+    void write(WritableMedia media, T value) throws IOException;
+
+    /**
+     * @param media the media to read fields from
+     * @return the de-serialized value
+     * @throws IOException if I/O error occurred
+     */
+    T read(ReadableMedia media) throws IOException;
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * User type output and input which dispatches to codec registered for the exact class of value (no
+ * {@code instanceof} chains). Class of user type should be known on read, i.e. {@link ReadableMedia#readObject(Class)}
+ * and {@link ReadableMedia#readObjectArray(Class)} should be called with concrete class.
+ * <p>
+ * Instances are immutable and may be shared between media and threads.
+ */
+public final class CodecRegistry implements UserTypeOutput, UserTypeInput {
+
+    private final Map<Class<?>, Codec<?>> codecs;
+
+    public CodecRegistry(Codec<?>... codecs) {
+        this.codecs = new HashMap<Class<?>, Codec<?>>(codecs.length * 2);
+        for (Codec<?> codec : codecs) {
+            if (this.codecs.put(codec.type(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate codec for " + codec.type());
+            }
+        }
+    }
+
+    /**
+     * @param type the user type
+     * @param <T>  the user type
+     * @return the codec registered for the class
+     * @throws IOException if there is no codec for supplied class
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> codec(Class<T> type) throws IOException {
+        final Codec<T> result = (Codec<T>) this.codecs.get(type);
+        if (result == null) {
+            throw new IOException("No codec for " + type);
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(WritableMedia media, Object value) throws IOException {
+        ((Codec<Object>) codec(value.getClass())).write(media, value);
+    }
+
+    @Override
+    public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+        return codec(clazz).read(media);
+    }
+}
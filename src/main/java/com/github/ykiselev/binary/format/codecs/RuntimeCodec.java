@@ -0,0 +1,306 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec built at run time for plain Java class. Class is inspected once: each non-static, non-transient field
+ * (including inherited ones, superclass fields first) is bound to the matching media method with
+ * {@link MethodHandles#filterArguments(MethodHandle, int, MethodHandle...)} and field handles are chained with
+ * {@link MethodHandles#foldArguments(MethodHandle, MethodHandle)} into single writer and single reader handle, so each
+ * object is written or read with single {@code invokeExact} call without reflection or boxing of primitives.
+ * <p>
+ * Fields of primitive, {@link String} and primitive array types are mapped to corresponding media methods, arrays of
+ * other types - to {@link WritableMedia#writeObjectArray(Object[])} and the rest - to
+ * {@link WritableMedia#writeObject(Object)}, so they should be supported by user type output of media.
+ * Fields of enum and JDK types (other than {@link String}), including boxed primitives, {@link Object}, dates and
+ * collections, are not supported (as with {@code @BinaryType} classes). Class should have no-arg constructor (of any
+ * visibility).
+ * <p>
+ * Use {@link RuntimeCodecs} to get cached instances.
+ */
+public final class RuntimeCodec<T> implements Codec<T> {
+
+    private static final MethodType WRITER = MethodType.methodType(void.class, WritableMedia.class, Object.class);
+
+    private static final MethodType READER = MethodType.methodType(void.class, ReadableMedia.class, Object.class);
+
+    private final Class<T> type;
+
+    /**
+     * Writes all fields, {@code (WritableMedia, Object)void}
+     */
+    private final MethodHandle writer;
+
+    /**
+     * Creates new instance, publishes it and reads all fields, {@code (ReadableMedia)Object}
+     */
+    private final MethodHandle reader;
+
+    /**
+     * @param type the class to build codec for
+     * @throws IllegalArgumentException if class is not supported
+     */
+    public RuntimeCodec(Class<T> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || type.isEnum()
+                || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Not a concrete class: " + type);
+        }
+        this.type = type;
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            final Constructor<T> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            final List<MethodHandle> writers = new ArrayList<MethodHandle>();
+            final List<MethodHandle> readers = new ArrayList<MethodHandle>();
+            readers.add(
+                    MethodHandles.publicLookup().findVirtual(
+                            ReadableMedia.class,
+                            "publish",
+                            MethodType.methodType(void.class, Object.class)
+                    )
+            );
+            for (Field field : fields(type)) {
+                field.setAccessible(true);
+                writers.add(writer(field.getType(), lookup.unreflectGetter(field)));
+                readers.add(reader(field.getType(), lookup.unreflectSetter(field)));
+            }
+            this.writer = chain(writers, WRITER);
+            // (ReadableMedia, Object)Object: reads fields and returns object
+            final MethodHandle body = MethodHandles.foldArguments(
+                    MethodHandles.dropArguments(MethodHandles.identity(Object.class), 0, ReadableMedia.class),
+                    chain(readers, READER)
+            );
+            // (Object, ReadableMedia)Object -> (ReadableMedia)Object with new instance as first argument
+            this.reader = MethodHandles.foldArguments(
+                    MethodHandles.permuteArguments(
+                            body,
+                            MethodType.methodType(Object.class, Object.class, ReadableMedia.class),
+                            1, 0
+                    ),
+                    lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class))
+            );
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No-arg constructor is required: " + type, e);
+        } catch (ReflectiveOperationException | SecurityException e) {
+            throw new IllegalArgumentException("Unable to access " + type, e);
+        }
+    }
+
+    /**
+     * Does nothing, used as writer of class without fields
+     */
+    private static void nothing(WritableMedia media, Object value) {
+    }
+
+    /**
+     * Combines handles into one which calls them in order
+     *
+     * @param handles the handles of the same type returning void
+     * @param type    the type of handles
+     * @return the combined handle
+     */
+    private static MethodHandle chain(List<MethodHandle> handles, MethodType type) throws ReflectiveOperationException {
+        if (handles.isEmpty()) {
+            return MethodHandles.lookup().findStatic(
+                    RuntimeCodec.class,
+                    "nothing",
+                    MethodType.methodType(void.class, WritableMedia.class, Object.class)
+            ).asType(type);
+        }
+        MethodHandle result = handles.get(handles.size() - 1);
+        for (int i = handles.size() - 2; i >= 0; i--) {
+            // combiner returns void, so it is called first and then target is called with the same arguments
+            result = MethodHandles.foldArguments(result, handles.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return serialized fields, superclass fields first
+     */
+    private static List<Field> fields(Class<?> type) {
+        final List<Field> result = new ArrayList<Field>();
+        if (type.getSuperclass() != null && type.getSuperclass() != Object.class) {
+            result.addAll(fields(type.getSuperclass()));
+        }
+        for (Field field : type.getDeclaredFields()) {
+            final int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the name of media method suffix for field type
+     */
+    private static String suffix(Class<?> type) {
+        if (type.isPrimitive()) {
+            final String name = type.getName();
+            return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+        if (type == String.class) {
+            return "String";
+        }
+        if (type.isArray()) {
+            final Class<?> component = type.getComponentType();
+            if (component == boolean.class) {
+                throw new IllegalArgumentException("Unsupported field type: " + type);
+            }
+            if (component.isPrimitive()) {
+                return suffix(component) + "Array";
+            }
+            ensureUserType(component);
+            return "ObjectArray";
+        }
+        ensureUserType(type);
+        return "Object";
+    }
+
+    /**
+     * Checks that field type may be written as user object. Enums and JDK classes are rejected as they would be passed
+     * to user type output which is not able to write them.
+     *
+     * @param type the type of field or array component
+     * @throws IllegalArgumentException if type is not supported
+     */
+    private static void ensureUserType(Class<?> type) {
+        if (type.isArray() || type.isEnum()) {
+            throw new IllegalArgumentException("Unsupported field type: " + type);
+        }
+        final String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.")) {
+            throw new IllegalArgumentException("Unsupported field type: " + type);
+        }
+    }
+
+    /**
+     * @param fieldType the type of field
+     * @param getter    the field getter, {@code (Owner)FieldType}
+     * @return the field writer, {@code (WritableMedia, Object)void}
+     */
+    private static MethodHandle writer(Class<?> fieldType, MethodHandle getter) throws ReflectiveOperationException {
+        final String suffix = suffix(fieldType);
+        final Class<?> parameter;
+        if ("Object".equals(suffix)) {
+            parameter = Object.class;
+        } else if ("ObjectArray".equals(suffix)) {
+            parameter = Object[].class;
+        } else {
+            parameter = fieldType;
+        }
+        final MethodHandle write = MethodHandles.publicLookup().findVirtual(
+                WritableMedia.class,
+                "write" + suffix,
+                MethodType.methodType(void.class, parameter)
+        );
+        return MethodHandles.filterArguments(
+                write,
+                1,
+                getter.asType(MethodType.methodType(parameter, Object.class))
+        ).asType(WRITER);
+    }
+
+    /**
+     * @param fieldType the type of field
+     * @param setter    the field setter, {@code (Owner, FieldType)void}
+     * @return the field reader, {@code (ReadableMedia, Object)void}
+     */
+    private static MethodHandle reader(Class<?> fieldType, MethodHandle setter) throws ReflectiveOperationException {
+        final String suffix = suffix(fieldType);
+        MethodHandle read;
+        if ("Object".equals(suffix)) {
+            read = MethodHandles.insertArguments(
+                    MethodHandles.publicLookup().findVirtual(
+                            ReadableMedia.class,
+                            "readObject",
+                            MethodType.methodType(Object.class, Class.class)
+                    ),
+                    1,
+                    fieldType
+            );
+        } else if ("ObjectArray".equals(suffix)) {
+            read = MethodHandles.insertArguments(
+                    MethodHandles.publicLookup().findVirtual(
+                            ReadableMedia.class,
+                            "readObjectArray",
+                            MethodType.methodType(Object[].class, Class.class)
+                    ),
+                    1,
+                    fieldType.getComponentType()
+            );
+        } else {
+            read = MethodHandles.publicLookup().findVirtual(
+                    ReadableMedia.class,
+                    "read" + suffix,
+                    MethodType.methodType(fieldType)
+            );
+        }
+        read = read.asType(MethodType.methodType(fieldType, ReadableMedia.class));
+        // (Object, ReadableMedia)void -> (ReadableMedia, Object)void
+        return MethodHandles.permuteArguments(
+                MethodHandles.filterArguments(
+                        setter.asType(MethodType.methodType(void.class, Object.class, fieldType)),
+                        1,
+                        read
+                ),
+                READER,
+                1, 0
+        );
+    }
+
+    @Override
+    public Class<T> type() {
+        return this.type;
+    }
+
+    @Override
+    public void write(WritableMedia media, T value) throws IOException {
+        try {
+            this.writer.invokeExact(media, (Object) value);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public T read(ReadableMedia media) throws IOException {
+        try {
+            return this.type.cast((Object) this.reader.invokeExact(media));
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+
+import java.io.IOException;
+
+/**
+ * User type output and input for classes which can not be processed at compile time (third-party DTOs, etc).
+ * Codec for each class is built by {@link RuntimeCodec} on first use and cached in {@link ClassValue}, so
+ * subsequent look-ups do not involve reflection.
+ * <p>
+ * As with {@link CodecRegistry} class of user type should be known on read. Cached codecs may also be passed to
+ * {@link TypeRegistry} to write polymorphic types.
+ */
+public final class RuntimeCodecs implements UserTypeOutput, UserTypeInput {
+
+    public static final RuntimeCodecs INSTANCE = new RuntimeCodecs();
+
+    private static final ClassValue<Codec<?>> CODECS = new ClassValue<Codec<?>>() {
+        @Override
+        protected Codec<?> computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
+
+    private RuntimeCodecs() {
+    }
+
+    private static <T> Codec<T> create(Class<T> type) {
+        return new RuntimeCodec<T>(type);
+    }
+
+    /**
+     * @param type the user type
+     * @param <T>  the user type
+     * @return the cached codec
+     * @throws IllegalArgumentException if class is not supported (see {@link RuntimeCodec})
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Codec<T> codec(Class<T> type) {
+        return (Codec<T>) CODECS.get(type);
+    }
+
+    /**
+     * @param type the user type
+     * @return the cached codec
+     * @throws IOException if class is not supported
+     */
+    private static <T> Codec<T> supported(Class<T> type) throws IOException {
+        try {
+            return codec(type);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(WritableMedia media, Object value) throws IOException {
+        ((Codec<Object>) supported(value.getClass())).write(media, value);
+    }
+
+    @Override
+    public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+        if (clazz == null) {
+            throw new IOException("Class of user type is required");
+        }
+        return supported(clazz).read(media);
+    }
+}
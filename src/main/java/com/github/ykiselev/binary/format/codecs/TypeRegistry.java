@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+
+import java.io.IOException;
+
+/**
+ * User type output and input for polymorphic user types. Each object is prefixed with small integer type id
+ * (packed integer right after {@link com.github.ykiselev.binary.format.Types#USER_TYPE}), so reader does not need to
+ * know the exact class - {@code readObject(Shape.class)} returns whatever subclass was written.
+ * <p>
+ * Type id is the index of codec in array supplied to constructor, so both sides should be created with the same
+ * list of codecs. Use {@code null} elements to reserve ids of retired types. Media on both sides should be created
+ * with {@link Features#TYPE_IDS} enabled.
+ * <p>
+ * On write class is mapped to id through {@link ClassValue} cache, on read codec is taken from array by id, so
+ * there are no string comparisons or map look-ups. Instances are immutable and may be shared between media and threads.
+ */
+public final class TypeRegistry implements UserTypeOutput, UserTypeInput {
+
+    /**
+     * Codec with its type id
+     */
+    private static final class Registration {
+
+        final int id;
+
+        final Codec<Object> codec;
+
+        Registration(int id, Codec<Object> codec) {
+            this.id = id;
+            this.codec = codec;
+        }
+    }
+
+    private static final Registration UNREGISTERED = new Registration(-1, null);
+
+    private final Codec<?>[] codecs;
+
+    private final ClassValue<Registration> registrations = new ClassValue<Registration>() {
+        @Override
+        protected Registration computeValue(Class<?> type) {
+            return find(type);
+        }
+    };
+
+    /**
+     * @param codecs the codecs by type id (may contain {@code null} elements)
+     */
+    public TypeRegistry(Codec<?>... codecs) {
+        this.codecs = codecs.clone();
+        for (int i = 0; i < this.codecs.length; i++) {
+            final Codec<?> codec = this.codecs[i];
+            if (codec != null && find(codec.type()).id != i) {
+                throw new IllegalArgumentException("Duplicate codec for " + codec.type());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Registration find(Class<?> type) {
+        for (int i = 0; i < this.codecs.length; i++) {
+            final Codec<?> codec = this.codecs[i];
+            if (codec != null && codec.type() == type) {
+                return new Registration(i, (Codec<Object>) codec);
+            }
+        }
+        return UNREGISTERED;
+    }
+
+    /**
+     * @param type the user type
+     * @return the type id or -1 if there is no codec for supplied class
+     */
+    public int id(Class<?> type) {
+        return this.registrations.get(type).id;
+    }
+
+    @Override
+    public void write(WritableMedia media, Object value) throws IOException {
+        final Registration registration = this.registrations.get(value.getClass());
+        if (registration.codec == null) {
+            throw new IOException("Unregistered type: " + value.getClass());
+        }
+        media.writePackedInteger(registration.id);
+        registration.codec.write(media, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+        final int id = media.readPackedInteger();
+        final Codec<?> codec = id >= 0 && id < this.codecs.length ? this.codecs[id] : null;
+        if (codec == null) {
+            throw new IOException("Unknown type id: " + id);
+        }
+        if (clazz != null && !clazz.isAssignableFrom(codec.type())) {
+            throw new IOException("Type id " + id + " is " + codec.type() + ", expected " + clazz);
+        }
+        return (T) codec.read(media);
+    }
+}
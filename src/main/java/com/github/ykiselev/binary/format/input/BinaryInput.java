@@ -19,6 +19,9 @@ package com.github.ykiselev.binary.format.input;
 import java.io.IOException;
 
 /**
+ * Low-level wrapper of input stream, etc.
+ * Implementations throw {@link java.io.EOFException} if there is not enough bytes till the end of input.
+ *
  * Created by Y.Kiselev on 03.09.2016.
  */
 public interface BinaryInput {
@@ -40,4 +43,36 @@ public interface BinaryInput {
      */
     void read(byte[] buffer, int length) throws IOException;
 
+    /**
+     * Reads two bytes stored in little-endian order
+     *
+     * @return the short value
+     * @throws IOException if an I/O error occurs
+     */
+    short readShortLE() throws IOException;
+
+    /**
+     * Reads four bytes stored in little-endian order
+     *
+     * @return the int value
+     * @throws IOException if an I/O error occurs
+     */
+    int readIntLE() throws IOException;
+
+    /**
+     * Reads eight bytes stored in little-endian order
+     *
+     * @return the long value
+     * @throws IOException if an I/O error occurs
+     */
+    long readLongLE() throws IOException;
+
+    /**
+     * Skips {@code length} bytes. Implementations backed by memory just move current position.
+     *
+     * @param length number of bytes to skip (exactly)
+     * @throws IOException if an I/O error occurs (like end of stream)
+     */
+    void skip(int length) throws IOException;
+
 }
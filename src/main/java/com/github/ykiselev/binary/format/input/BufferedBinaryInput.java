@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary input with internal read-ahead buffer. Single bytes and primitives are served from the buffer,
+ * underlying stream is accessed only when buffer is exhausted. Short reads of underlying stream are retried
+ * until requested number of bytes is available.
+ * This class is not thread safe.
+ */
+public final class BufferedBinaryInput implements BinaryInput {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final InputStream is;
+
+    private final byte[] buffer;
+
+    private final ByteBuffer view;
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * @param is         the stream to read from
+     * @param bufferSize the size of read-ahead buffer (at least 8 bytes)
+     */
+    public BufferedBinaryInput(InputStream is, int bufferSize) {
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+        }
+        this.is = is;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(this.buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public BufferedBinaryInput(InputStream is) {
+        this(is, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Makes sure that at least {@code required} bytes are available in buffer.
+     *
+     * @param required the number of bytes required (not greater than buffer length)
+     * @throws IOException if an I/O error occurs or stream ends prematurely
+     */
+    private void fill(int required) throws IOException {
+        final int available = this.limit - this.position;
+        if (available >= required) {
+            return;
+        }
+        if (this.position > 0) {
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, available);
+            this.position = 0;
+            this.limit = available;
+        }
+        while (this.limit < required) {
+            final int read = this.is.read(this.buffer, this.limit, this.buffer.length - this.limit);
+            if (read == -1) {
+                throw new EOFException("Unexpected end of stream!");
+            }
+            this.limit += read;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        fill(1);
+        return this.buffer[this.position++] & 0xff;
+    }
+
+    @Override
+    public void read(byte[] buffer, int length) throws IOException {
+        final int available = this.limit - this.position;
+        if (available >= length) {
+            System.arraycopy(this.buffer, this.position, buffer, 0, length);
+            this.position += length;
+            return;
+        }
+        System.arraycopy(this.buffer, this.position, buffer, 0, available);
+        this.position = this.limit = 0;
+        int offset = available;
+        if (length - offset < this.buffer.length) {
+            fill(length - offset);
+            System.arraycopy(this.buffer, 0, buffer, offset, length - offset);
+            this.position = length - offset;
+        } else {
+            // large reads bypass internal buffer
+            while (offset < length) {
+                final int read = this.is.read(buffer, offset, length - offset);
+                if (read == -1) {
+                    throw new EOFException("Partial read: only " + offset + " of " + length + " bytes!");
+                }
+                offset += read;
+            }
+        }
+    }
+
+    @Override
+    public void skip(int length) throws IOException {
+        final int available = this.limit - this.position;
+        if (available >= length) {
+            this.position += length;
+        } else {
+            this.position = this.limit = 0;
+            InputStreamBinaryInput.skip(this.is, length - available);
+        }
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        fill(2);
+        final short result = this.view.getShort(this.position);
+        this.position += 2;
+        return result;
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        fill(4);
+        final int result = this.view.getInt(this.position);
+        this.position += 4;
+        return result;
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        fill(8);
+        final long result = this.view.getLong(this.position);
+        this.position += 8;
+        return result;
+    }
+}
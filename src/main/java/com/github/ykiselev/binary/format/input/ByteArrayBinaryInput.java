@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary input reading from the region of byte array.
+ * This class is not thread safe.
+ */
+public final class ByteArrayBinaryInput implements SliceableBinaryInput {
+
+    private final byte[] array;
+
+    private final int limit;
+
+    private int position;
+
+    public byte[] array() {
+        return array;
+    }
+
+    /**
+     * @return the index of next byte to read
+     */
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public long offset() {
+        return this.position;
+    }
+
+    @Override
+    public void offset(long offset) {
+        if (offset < 0 || offset > this.limit) {
+            throw new IllegalArgumentException("Bad offset: " + offset + ", limit=" + this.limit);
+        }
+        this.position = (int) offset;
+    }
+
+    /**
+     * @param array  the array to read from
+     * @param offset the offset of first byte to read
+     * @param length the number of bytes available for reading
+     */
+    public ByteArrayBinaryInput(byte[] array, int offset, int length) {
+        if (offset < 0 || length < 0 || length > array.length - offset) {
+            throw new IndexOutOfBoundsException("Bad region: offset=" + offset + ", length=" + length + ", array length=" + array.length);
+        }
+        this.array = array;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public ByteArrayBinaryInput(byte[] array) {
+        this(array, 0, array.length);
+    }
+
+    private int ensure(int length) throws IOException {
+        final int p = this.position;
+        if (this.limit - p < length) {
+            throw new EOFException("Unexpected end of array: need " + length + " bytes, only " + (this.limit - p) + " left!");
+        }
+        this.position = p + length;
+        return p;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return this.array[ensure(1)] & 0xff;
+    }
+
+    @Override
+    public void read(byte[] buffer, int length) throws IOException {
+        System.arraycopy(this.array, ensure(length), buffer, 0, length);
+    }
+
+    @Override
+    public void skip(int length) throws IOException {
+        ensure(length);
+    }
+
+    @Override
+    public ByteBuffer slice(int length) throws IOException {
+        return ByteBuffer.wrap(this.array, ensure(length), length)
+                .slice()
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        final int p = ensure(2);
+        return (short) ((this.array[p] & 0xff) | (this.array[p + 1] << 8));
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        return getInt(ensure(4));
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        final int p = ensure(8);
+        return (getInt(p) & 0xffffffffL) | ((long) getInt(p + 4) << 32);
+    }
+
+    private int getInt(int p) {
+        final byte[] a = this.array;
+        return (a[p] & 0xff)
+                | ((a[p + 1] & 0xff) << 8)
+                | ((a[p + 2] & 0xff) << 16)
+                | (a[p + 3] << 24);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary input backed by {@link ByteBuffer} (both heap and direct buffers are supported).
+ * Multi-byte primitives are read with single bounds-checked call to the buffer.
+ * Note: byte order of supplied buffer is switched to {@link ByteOrder#LITTLE_ENDIAN}.
+ * This class is not thread safe.
+ */
+public final class ByteBufferBinaryInput implements SliceableBinaryInput {
+
+    private final ByteBuffer buffer;
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @param buffer the buffer to read from (from current position till the limit)
+     */
+    public ByteBufferBinaryInput(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void ensure(int length) throws IOException {
+        if (this.buffer.remaining() < length) {
+            throw new EOFException("Unexpected end of buffer: need " + length + " bytes, only " + this.buffer.remaining() + " left!");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensure(1);
+        return this.buffer.get() & 0xff;
+    }
+
+    @Override
+    public void read(byte[] buffer, int length) throws IOException {
+        ensure(length);
+        this.buffer.get(buffer, 0, length);
+    }
+
+    @Override
+    public long offset() {
+        return this.buffer.position();
+    }
+
+    @Override
+    public void offset(long offset) {
+        if (offset < 0 || offset > this.buffer.limit()) {
+            throw new IllegalArgumentException("Bad offset: " + offset + ", limit=" + this.buffer.limit());
+        }
+        ((Buffer) this.buffer).position((int) offset);
+    }
+
+    @Override
+    public void skip(int length) throws IOException {
+        ensure(length);
+        ((Buffer) this.buffer).position(this.buffer.position() + length);
+    }
+
+    @Override
+    public ByteBuffer slice(int length) throws IOException {
+        ensure(length);
+        final ByteBuffer result = this.buffer.slice();
+        ((Buffer) result).limit(length);
+        ((Buffer) this.buffer).position(this.buffer.position() + length);
+        return result.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        ensure(2);
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        ensure(4);
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        ensure(8);
+        return this.buffer.getLong();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Binary input reading from {@link ReadableByteChannel} through direct staging buffer.
+ * <p>
+ * With blocking channel this class behaves like any other input. With non-blocking channel, when staged bytes are
+ * exhausted and channel has nothing to read, {@link NeedMoreBytesException} is thrown. To decode incrementally
+ * call {@link #mark()} before decoding and {@link #reset()} after failed attempt - all the bytes after the mark are retained
+ * (staging buffer grows if needed) so decoding may be repeated after the next {@link #fill()}.
+ * See {@link com.github.ykiselev.binary.format.media.NonBlockingReader}.
+ * This class is not thread safe.
+ */
+public final class ChannelBinaryInput implements BinaryInput {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final ReadableByteChannel channel;
+
+    /**
+     * Staging buffer, bytes between position and limit are not read yet.
+     */
+    private ByteBuffer buffer;
+
+    private int mark = -1;
+
+    /**
+     * @param channel    the channel to read from
+     * @param bufferSize the initial size of staging buffer (at least 8 bytes)
+     */
+    public ChannelBinaryInput(ReadableByteChannel channel, int bufferSize) {
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+        }
+        this.channel = channel;
+        this.buffer = allocate(bufferSize);
+        ((Buffer) this.buffer).limit(0);
+    }
+
+    public ChannelBinaryInput(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return the number of staged bytes which may be read without accessing the channel
+     */
+    public int available() {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * Marks current position. Bytes after the mark will be retained in staging buffer until next call to this method
+     * or to {@link #reset()}.
+     */
+    public void mark() {
+        this.mark = this.buffer.position();
+    }
+
+    /**
+     * Returns to the marked position and removes the mark.
+     */
+    public void reset() {
+        if (this.mark < 0) {
+            throw new IllegalStateException("Not marked!");
+        }
+        ((Buffer) this.buffer).position(this.mark);
+        this.mark = -1;
+    }
+
+    /**
+     * Removes the mark, so marked bytes may be discarded.
+     */
+    public void unmark() {
+        this.mark = -1;
+    }
+
+    /**
+     * Reads channel once, retaining all the unread (or marked) bytes.
+     *
+     * @return the number of bytes read or -1 if channel has reached end-of-stream
+     * @throws IOException if an I/O error occurs
+     */
+    public int fill() throws IOException {
+        prepare(this.buffer.remaining() + 1);
+        return readChannel();
+    }
+
+    /**
+     * Compacts staging buffer (keeping marked bytes) and makes room for at least {@code required} unread bytes.
+     */
+    private void prepare(int required) {
+        final ByteBuffer b = this.buffer;
+        final int position = b.position();
+        final int from = this.mark >= 0 ? this.mark : position;
+        final int capacity = position - from + required;
+        if (from == 0 && capacity <= b.capacity()) {
+            return;
+        }
+        ((Buffer) b).position(from);
+        final ByteBuffer target;
+        if (capacity > b.capacity()) {
+            target = allocate(Math.max(capacity, 2 * b.capacity()));
+            target.put(b);
+        } else {
+            target = b;
+            target.compact();
+        }
+        ((Buffer) target).flip();
+        ((Buffer) target).position(position - from);
+        if (this.mark >= 0) {
+            this.mark = 0;
+        }
+        this.buffer = target;
+    }
+
+    /**
+     * Reads from channel to the free space after limit.
+     */
+    private int readChannel() throws IOException {
+        final ByteBuffer b = this.buffer;
+        final int position = b.position();
+        final int limit = b.limit();
+        ((Buffer) b).position(limit);
+        ((Buffer) b).limit(b.capacity());
+        try {
+            return this.channel.read(b);
+        } finally {
+            ((Buffer) b).limit(b.position());
+            ((Buffer) b).position(position);
+        }
+    }
+
+    /**
+     * Makes sure that at least {@code required} bytes are staged.
+     */
+    private ByteBuffer ensure(int required) throws IOException {
+        if (this.buffer.remaining() < required) {
+            prepare(required);
+            while (this.buffer.remaining() < required) {
+                final int read = readChannel();
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of stream!");
+                }
+                if (read == 0) {
+                    throw new NeedMoreBytesException(required - this.buffer.remaining());
+                }
+            }
+        }
+        return this.buffer;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return ensure(1).get() & 0xff;
+    }
+
+    @Override
+    public void read(byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            final ByteBuffer b = ensure(Math.min(length - offset, this.buffer.capacity()));
+            final int count = Math.min(b.remaining(), length - offset);
+            b.get(buffer, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void skip(int length) throws IOException {
+        while (length > 0) {
+            final ByteBuffer b = ensure(Math.min(length, this.buffer.capacity()));
+            final int count = Math.min(b.remaining(), length);
+            ((Buffer) b).position(b.position() + count);
+            length -= count;
+        }
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        return ensure(2).getShort();
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        return ensure(4).getInt();
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        return ensure(8).getLong();
+    }
+}
@@ -16,10 +16,14 @@
 
 package com.github.ykiselev.binary.format.input;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 
 /**
+ * Unbuffered binary input. Each single byte is requested from underlying stream, so consider using {@link BufferedBinaryInput}
+ * unless stream is already buffered.
+ * <p>
  * Created by Y.Kiselev on 26.06.2016.
  */
 public final class InputStreamBinaryInput implements BinaryInput {
@@ -34,17 +38,57 @@ public final class InputStreamBinaryInput implements BinaryInput {
     public int read() throws IOException {
         final int result = this.is.read();
         if (result == -1) {
-            throw new IOException("Unexpected end of stream!");
+            throw new EOFException("Unexpected end of stream!");
         }
         return result;
     }
 
     @Override
     public void read(byte[] buffer, int length) throws IOException {
-        final int read = this.is.read(buffer, 0, length);
-        if (read != length) {
-            throw new IOException("Partial read: only " + read + " of " + length + " bytes!");
+        int offset = 0;
+        while (offset < length) {
+            final int read = this.is.read(buffer, offset, length - offset);
+            if (read == -1) {
+                throw new EOFException("Partial read: only " + offset + " of " + length + " bytes!");
+            }
+            offset += read;
         }
     }
 
+    @Override
+    public void skip(int length) throws IOException {
+        skip(this.is, length);
+    }
+
+    /**
+     * Skips exactly {@code length} bytes of stream
+     */
+    static void skip(InputStream is, long length) throws IOException {
+        while (length > 0) {
+            final long skipped = is.skip(length);
+            if (skipped > 0) {
+                length -= skipped;
+            } else if (is.read() == -1) {
+                throw new EOFException("Unexpected end of stream!");
+            } else {
+                length--;
+            }
+        }
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        return (short) (read() + (read() << 8));
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        return read() + (read() << 8) + (read() << 16) + (read() << 24);
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        return ((long) readIntLE() & 0xffffffffL) + ((long) readIntLE() << 32);
+    }
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary input reading memory-mapped file. File is mapped as a chain of read-only segments,
+ * so files larger than 2 Gb are supported. Primitives are read directly from the mapping unless they cross segment boundary.
+ * Current position may be changed with {@link #position(long)} to jump to known offset.
+ * Channel may be closed after construction, mapping stays valid until garbage collected.
+ * This class is not thread safe.
+ */
+public final class MappedFileBinaryInput implements SliceableBinaryInput {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final ByteBuffer[] segments;
+
+    private final long segmentSize;
+
+    private final long size;
+
+    private int index;
+
+    private ByteBuffer current;
+
+    /**
+     * @param channel     the channel to map
+     * @param segmentSize the maximum size of single mapped segment
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedFileBinaryInput(FileChannel channel, int segmentSize) throws IOException {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Bad segment size: " + segmentSize);
+        }
+        this.size = channel.size();
+        this.segmentSize = segmentSize;
+        final long count = Math.max(1, (this.size + segmentSize - 1) / segmentSize);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+        }
+        this.segments = new ByteBuffer[(int) count];
+        for (int i = 0; i < this.segments.length; i++) {
+            final long offset = i * this.segmentSize;
+            this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(this.segmentSize, this.size - offset))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.current = this.segments[0];
+    }
+
+    public MappedFileBinaryInput(FileChannel channel) throws IOException {
+        this(channel, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @return the size of mapped file
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the offset of next byte to read
+     */
+    public long position() {
+        return this.index * this.segmentSize + this.current.position();
+    }
+
+    /**
+     * Moves to the specified offset
+     *
+     * @param position the offset of next byte to read (0..size)
+     */
+    public void position(long position) {
+        if (position < 0 || position > this.size) {
+            throw new IllegalArgumentException("Bad position: " + position + ", size=" + this.size);
+        }
+        final int index = (int) Math.min(position / this.segmentSize, this.segments.length - 1);
+        select(index);
+        ((Buffer) this.current).position((int) (position - index * this.segmentSize));
+    }
+
+    @Override
+    public long offset() {
+        return position();
+    }
+
+    @Override
+    public void offset(long offset) {
+        position(offset);
+    }
+
+    private void select(int index) {
+        this.index = index;
+        this.current = this.segments[index];
+    }
+
+    /**
+     * Switches to the next segment if current one is exhausted
+     *
+     * @throws IOException if there is no more data
+     */
+    private ByteBuffer next() throws IOException {
+        while (!this.current.hasRemaining()) {
+            if (this.index + 1 >= this.segments.length) {
+                throw new EOFException("Unexpected end of file!");
+            }
+            select(this.index + 1);
+            ((Buffer) this.current).position(0);
+        }
+        return this.current;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return next().get() & 0xff;
+    }
+
+    @Override
+    public void read(byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            final ByteBuffer segment = next();
+            final int count = Math.min(segment.remaining(), length - offset);
+            segment.get(buffer, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void skip(int length) throws IOException {
+        final long position = position() + length;
+        if (position > this.size) {
+            throw new EOFException("Unexpected end of file!");
+        }
+        position(position);
+    }
+
+    /**
+     * Returns view of the mapping unless requested region crosses segment boundary, in that case bytes are copied.
+     */
+    @Override
+    public ByteBuffer slice(int length) throws IOException {
+        if (this.current.remaining() >= length) {
+            final ByteBuffer result = this.current.slice();
+            ((Buffer) result).limit(length);
+            ((Buffer) this.current).position(this.current.position() + length);
+            return result.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        final byte[] copy = new byte[length];
+        read(copy, length);
+        return ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        if (this.current.remaining() >= 2) {
+            return this.current.getShort();
+        }
+        return (short) (read() + (read() << 8));
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        if (this.current.remaining() >= 4) {
+            return this.current.getInt();
+        }
+        return read() + (read() << 8) + (read() << 16) + (read() << 24);
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        if (this.current.remaining() >= 8) {
+            return this.current.getLong();
+        }
+        return ((long) readIntLE() & 0xffffffffL) + ((long) readIntLE() << 32);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.IOException;
+
+/**
+ * Thrown by non-blocking inputs when staged data is exhausted and underlying channel has no more bytes at the moment.
+ * Stack trace is not filled as this exception is expected to be used for flow control.
+ */
+public final class NeedMoreBytesException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NeedMoreBytesException(int required) {
+        super("Need " + required + " more byte(s)");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
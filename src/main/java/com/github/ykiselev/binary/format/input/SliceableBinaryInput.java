@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary input backed by memory, which is able to return part of it's content as a view without copying.
+ */
+public interface SliceableBinaryInput extends BinaryInput {
+
+    /**
+     * Returns next {@code length} bytes as a buffer and advances current position.
+     * Returned buffer may share content with this input, so it's valid only as long as underlying storage is not re-used.
+     *
+     * @param length the number of bytes
+     * @return the buffer with position zero and limit equal to {@code length}
+     * @throws IOException if there is not enough bytes
+     */
+    ByteBuffer slice(int length) throws IOException;
+
+    /**
+     * @return the offset of next byte to read
+     */
+    long offset();
+
+    /**
+     * Moves to the specified offset (previously returned by {@link #offset()})
+     *
+     * @param offset the offset of next byte to read
+     */
+    void offset(long offset);
+}
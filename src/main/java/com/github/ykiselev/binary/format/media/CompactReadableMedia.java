@@ -0,0 +1,390 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.buffers.ArrayFactory;
+import com.github.ykiselev.binary.format.input.BinaryInput;
+import com.github.ykiselev.binary.format.input.SliceableBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.strings.StringCache;
+import com.github.ykiselev.binary.format.strings.Utf8Sequence;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Reads streams written by {@link CompactWritableMedia}. Values should be read in exactly the same order and with
+ * the same methods as they were written, as there are no type bytes to check or convert.
+ * <p>
+ * Type peeking, skipping and reading of unknown fields are not supported.
+ * This class is not thread safe.
+ */
+public final class CompactReadableMedia implements ReadableMedia {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final BinaryInput input;
+
+    private final UserTypeInput userTypeInput;
+
+    private final StringCache stringCache;
+
+    private boolean started;
+
+    private ScratchBuffer scratch;
+
+    /**
+     * @param input         the input to read from
+     * @param userTypeInput the input to read user types from
+     * @param stringCache   the cache to look up strings in or {@code null} to decode each string
+     */
+    public CompactReadableMedia(BinaryInput input, UserTypeInput userTypeInput, StringCache stringCache) {
+        this.input = input;
+        this.userTypeInput = userTypeInput;
+        this.stringCache = stringCache;
+    }
+
+    public CompactReadableMedia(BinaryInput input, UserTypeInput userTypeInput) {
+        this(input, userTypeInput, null);
+    }
+
+    private ScratchBuffer scratch() {
+        if (this.scratch == null) {
+            this.scratch = new ScratchBuffer();
+        }
+        return this.scratch;
+    }
+
+    /**
+     * Checks header before the first value (each value starts with {@link #read()} or fixed size read of float/double).
+     */
+    private void start() throws IOException {
+        if (!this.started) {
+            final int header = this.input.read();
+            if (header != CompactWritableMedia.HEADER) {
+                throw new IOException("Not a compact stream, header: " + header);
+            }
+            this.started = true;
+        }
+    }
+
+    private int read() throws IOException {
+        start();
+        return this.input.read();
+    }
+
+    private void read(byte[] buffer, int length) throws IOException {
+        this.input.read(buffer, length);
+    }
+
+    private ByteBuffer slice(int length) throws IOException {
+        if (this.input instanceof SliceableBinaryInput) {
+            return ((SliceableBinaryInput) this.input).slice(length);
+        }
+        final byte[] tmp = new byte[length];
+        read(tmp, length);
+        return ByteBuffer.wrap(tmp).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public int readPackedInteger() throws IOException {
+        final long result = readPackedLong();
+        if (result < 0 || result > Integer.MAX_VALUE) {
+            throw new IOException("Bad packed integer: " + result);
+        }
+        return (int) result;
+    }
+
+    private long readPackedLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = read();
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed packed integer");
+    }
+
+    private long readZigZag() throws IOException {
+        final long value = readPackedLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return the length of nullable value or -1 for {@code null}
+     */
+    private int readLength() throws IOException {
+        return readPackedInteger() - 1;
+    }
+
+    @Override
+    public int peekType() throws IOException {
+        throw new IOException("Compact media has no type bytes");
+    }
+
+    @Override
+    public String readString() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        } else if (length == 0) {
+            return "";
+        } else if (this.stringCache != null && length <= ScratchBuffer.SIZE) {
+            final byte[] tmp = scratch().array();
+            read(tmp, length);
+            return this.stringCache.get(tmp, 0, length);
+        }
+        final byte[] tmp = new byte[length];
+        read(tmp, length);
+        return new String(tmp, UTF_8);
+    }
+
+    @Override
+    public Utf8Sequence readStringAsCharSequence() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        return new Utf8Sequence(slice(length));
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return (byte) read();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readPackedLong();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) readZigZag();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return (int) readZigZag();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return readZigZag();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        start();
+        return Float.intBitsToFloat(this.input.readIntLE());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        start();
+        return Double.longBitsToDouble(this.input.readLongLE());
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        final int value = read();
+        if (value > 1) {
+            throw new IOException("Not a boolean: " + value);
+        }
+        return value == 1;
+    }
+
+    @Override
+    public <T> T readObject(Class<T> type) throws IOException {
+        final int flag = read();
+        if (flag == 0) {
+            return null;
+        } else if (flag != 1) {
+            throw new IOException("Not a user type: " + flag);
+        }
+        return this.userTypeInput.read(this, type);
+    }
+
+    /**
+     * Does nothing as compact media does not support object references.
+     */
+    @Override
+    public void publish(Object value) {
+    }
+
+    @Override
+    public byte[] readByteArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] result = new byte[length];
+        read(result, length);
+        return result;
+    }
+
+    @Override
+    public ByteBuffer readByteSlice() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        return slice(length);
+    }
+
+    @Override
+    public char[] readCharArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final char[] result = new char[length];
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 2;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 2);
+            scratch.chars().get(result, offset, count);
+        }
+        return result;
+    }
+
+    @Override
+    public short[] readShortArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final short[] result = new short[length];
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 2;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 2);
+            scratch.shorts().get(result, offset, count);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] readIntArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final int[] result = new int[length];
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 4;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 4);
+            scratch.ints().get(result, offset, count);
+        }
+        return result;
+    }
+
+    @Override
+    public long[] readLongArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final long[] result = new long[length];
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 8;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 8);
+            scratch.longs().get(result, offset, count);
+        }
+        return result;
+    }
+
+    @Override
+    public float[] readFloatArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final float[] result = new float[length];
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 4;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 4);
+            scratch.floats().get(result, offset, count);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] readDoubleArray() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final double[] result = new double[length];
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 8;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 8);
+            scratch.doubles().get(result, offset, count);
+        }
+        return result;
+    }
+
+    @Override
+    public <T> T[] readObjectArray(Class<T> itemType) throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        @SuppressWarnings("unchecked") final T[] result = (T[]) Array.newInstance(itemType, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = readObject(itemType);
+        }
+        return result;
+    }
+
+    @Override
+    public void readRest(BinaryOutput output, ArrayFactory arrayFactory) throws IOException {
+        throw new IOException("Compact media has no field boundaries");
+    }
+
+    @Override
+    public ByteBuffer readRest() throws IOException {
+        throw new IOException("Compact media has no field boundaries");
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        throw new IOException("Compact media has no type bytes");
+    }
+
+    @Override
+    public void skipObject() throws IOException {
+        throw new IOException("Compact media has no field boundaries");
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import com.github.ykiselev.binary.format.strings.Utf8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Schema-less media for the case when both sides share exactly the same schema (fields are written and read in the
+ * same order with the same methods). Values are written without type bytes:
+ * <ul>
+ * <li>byte - as is, boolean - as single byte 0 or 1</li>
+ * <li>char - as packed integer, short, int and long - as zig-zag encoded packed integers (1-10 bytes)</li>
+ * <li>float and double - as is (4 and 8 bytes, little-endian)</li>
+ * <li>strings and arrays - as packed length plus one (zero means {@code null}) followed by UTF-8 bytes or items,
+ * primitive items are written as is (same as {@link SimpleWritableMedia} does)</li>
+ * <li>user objects - as packed integer 0 ({@code null}) or 1 followed by fields, there is no end marker</li>
+ * </ul>
+ * Stream starts with {@link #HEADER} byte (written before the first value). Lower four bits of header are zero which
+ * is never a valid type byte, so {@link SimpleReadableMedia} fails on the first value of compact stream and
+ * {@link CompactReadableMedia} fails on stream without header.
+ * <p>
+ * As there are no field boundaries, unknown fields can not be skipped or passed through, so {@code writeRest} is not
+ * supported.
+ * This class is not thread safe.
+ */
+public final class CompactWritableMedia implements WritableMedia {
+
+    /**
+     * First byte of compact stream
+     */
+    public static final int HEADER = 0xc0;
+
+    private final BinaryOutput out;
+
+    private final UserTypeOutput userTypeOutput;
+
+    private boolean started;
+
+    private ScratchBuffer scratch;
+
+    public CompactWritableMedia(BinaryOutput out, UserTypeOutput userTypeOutput) {
+        this.out = out;
+        this.userTypeOutput = userTypeOutput;
+    }
+
+    private ScratchBuffer scratch() {
+        if (this.scratch == null) {
+            this.scratch = new ScratchBuffer();
+        }
+        return this.scratch;
+    }
+
+    /**
+     * Writes header before the first value. Each value starts with {@link #write(int)}, {@link #writeInt32(int)} or
+     * {@link #writeInt64(long)} so header is checked there.
+     */
+    private void start() throws IOException {
+        if (!this.started) {
+            this.started = true;
+            this.out.write(HEADER);
+        }
+    }
+
+    private void write(int value) throws IOException {
+        start();
+        this.out.write(value);
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        this.out.write(data, offset, length);
+    }
+
+    private void writeInt32(int value) throws IOException {
+        start();
+        this.out.writeIntLE(value);
+    }
+
+    private void writeInt64(long value) throws IOException {
+        start();
+        this.out.writeLongLE(value);
+    }
+
+    @Override
+    public void writePackedInteger(int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Length must be positive: " + value);
+        }
+        writePackedLong(value);
+    }
+
+    private void writePackedLong(long value) throws IOException {
+        for (; ; ) {
+            final int bits = (int) (value & 0x7f);
+            value >>>= 7;
+            if (value != 0) {
+                write(bits | 0x80);
+            } else {
+                write(bits);
+                break;
+            }
+        }
+    }
+
+    private void writeZigZag(long value) throws IOException {
+        writePackedLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes length of nullable value
+     */
+    private void writeLength(int length) throws IOException {
+        writePackedInteger(length + 1);
+    }
+
+    private void writeNull() throws IOException {
+        write(0);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            final int length = Utf8.encodedLength(value);
+            writeLength(length);
+            Utf8.encode(value, scratch().array(), this.out);
+        }
+    }
+
+    @Override
+    public void writeByte(byte value) throws IOException {
+        write(value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        write(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeChar(char value) throws IOException {
+        writePackedLong(value);
+    }
+
+    @Override
+    public void writeShort(short value) throws IOException {
+        writeZigZag(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        writeZigZag(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        writeZigZag(value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException {
+        writeInt32(Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException {
+        writeInt64(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public <T> void writeObject(T value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            write(1);
+            this.userTypeOutput.write(this, value);
+        }
+    }
+
+    @Override
+    public void writeByteArray(byte[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            write(value, 0, value.length);
+        }
+    }
+
+    @Override
+    public void writeCharArray(char[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 2;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.chars().put(value, offset, count);
+                write(scratch.array(), 0, count * 2);
+            }
+        }
+    }
+
+    @Override
+    public void writeShortArray(short[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 2;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.shorts().put(value, offset, count);
+                write(scratch.array(), 0, count * 2);
+            }
+        }
+    }
+
+    @Override
+    public void writeIntArray(int[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 4;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.ints().put(value, offset, count);
+                write(scratch.array(), 0, count * 4);
+            }
+        }
+    }
+
+    @Override
+    public void writeLongArray(long[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 8;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.longs().put(value, offset, count);
+                write(scratch.array(), 0, count * 8);
+            }
+        }
+    }
+
+    @Override
+    public void writeFloatArray(float[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 4;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.floats().put(value, offset, count);
+                write(scratch.array(), 0, count * 4);
+            }
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(double[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 8;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.doubles().put(value, offset, count);
+                write(scratch.array(), 0, count * 8);
+            }
+        }
+    }
+
+    @Override
+    public <T> void writeObjectArray(T[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLength(value.length);
+            for (T item : value) {
+                writeObject(item);
+            }
+        }
+    }
+
+    @Override
+    public void writeRest(byte[] blob, int count) throws IOException {
+        throw new IOException("Compact media has no field boundaries");
+    }
+
+    @Override
+    public void writeRest(ByteBuffer blob) throws IOException {
+        throw new IOException("Compact media has no field boundaries");
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.input.BinaryInput;
+import com.github.ykiselev.binary.format.input.SliceableBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+
+import java.io.IOException;
+
+/**
+ * Reads frames written by {@link FramedWritableMedia}. Each frame may be either decoded in place ({@link #readObject(Class)}),
+ * skipped without parsing ({@link #skipFrame()}) or extracted as a byte array ({@link #readFrame()}) to be decoded later,
+ * possibly by another thread:
+ * <pre>
+ * new SimpleReadableMedia(new ByteArrayBinaryInput(frame), userTypeInput).readObject(Item.class);
+ * </pre>
+ * This class is not thread safe.
+ */
+public final class FramedReadableMedia {
+
+    /**
+     * Either sliceable input (which knows its offset) or counting wrapper of input
+     */
+    private final BinaryInput input;
+
+    private final ReadableMedia media;
+
+    /**
+     * @param input         the input to read frames from
+     * @param userTypeInput the user type input
+     */
+    public FramedReadableMedia(BinaryInput input, UserTypeInput userTypeInput) {
+        this.input = input instanceof SliceableBinaryInput ? input : new CountingInput(input);
+        this.media = new SimpleReadableMedia(this.input, userTypeInput);
+    }
+
+    /**
+     * Reads the length of the next frame. May be used to decide whether to read or skip the frame.
+     * Note: this method should be followed by {@link #skip(int)} or {@link #readFrame(int)}.
+     *
+     * @return the length of frame
+     * @throws IOException if I/O error occurred.
+     */
+    public int readLength() throws IOException {
+        return this.media.readPackedInteger();
+    }
+
+    /**
+     * Decodes next frame in place
+     *
+     * @param clazz the class of object
+     * @param <T>   the type of object
+     * @return the decoded object
+     * @throws IOException if I/O error occurred or object does not occupy exactly the whole frame.
+     */
+    public <T> T readObject(Class<T> clazz) throws IOException {
+        final int length = readLength();
+        final long start = offset();
+        final T result = this.media.readObject(clazz);
+        final long consumed = offset() - start;
+        if (consumed != length) {
+            throw new IOException("Frame length mismatch: frame has " + length + " bytes, object has " + consumed);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of bytes consumed from input
+     */
+    private long offset() {
+        if (this.input instanceof SliceableBinaryInput) {
+            return ((SliceableBinaryInput) this.input).offset();
+        }
+        return ((CountingInput) this.input).count;
+    }
+
+    /**
+     * Skips next frame without parsing it.
+     *
+     * @throws IOException if I/O error occurred.
+     */
+    public void skipFrame() throws IOException {
+        skip(readLength());
+    }
+
+    /**
+     * Skips the rest of frame after it's length was read with {@link #readLength()}
+     *
+     * @param length the length of frame
+     * @throws IOException if I/O error occurred.
+     */
+    public void skip(int length) throws IOException {
+        this.input.skip(length);
+    }
+
+    /**
+     * Reads next frame as a byte array (without length prefix).
+     *
+     * @return the serialized object
+     * @throws IOException if I/O error occurred.
+     */
+    public byte[] readFrame() throws IOException {
+        return readFrame(readLength());
+    }
+
+    /**
+     * Reads the rest of frame after it's length was read with {@link #readLength()}
+     *
+     * @param length the length of frame
+     * @return the serialized object
+     * @throws IOException if I/O error occurred.
+     */
+    public byte[] readFrame(int length) throws IOException {
+        final byte[] result = new byte[length];
+        this.input.read(result, length);
+        return result;
+    }
+
+    /**
+     * Input counting consumed bytes to check frame boundaries if underlying input does not know its offset
+     */
+    private static final class CountingInput implements BinaryInput {
+
+        private final BinaryInput delegate;
+
+        long count;
+
+        CountingInput(BinaryInput delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = this.delegate.read();
+            this.count++;
+            return result;
+        }
+
+        @Override
+        public void read(byte[] buffer, int length) throws IOException {
+            this.delegate.read(buffer, length);
+            this.count += length;
+        }
+
+        @Override
+        public short readShortLE() throws IOException {
+            final short result = this.delegate.readShortLE();
+            this.count += 2;
+            return result;
+        }
+
+        @Override
+        public int readIntLE() throws IOException {
+            final int result = this.delegate.readIntLE();
+            this.count += 4;
+            return result;
+        }
+
+        @Override
+        public long readLongLE() throws IOException {
+            final long result = this.delegate.readLongLE();
+            this.count += 8;
+            return result;
+        }
+
+        @Override
+        public void skip(int length) throws IOException {
+            this.delegate.skip(length);
+            this.count += length;
+        }
+    }
+}
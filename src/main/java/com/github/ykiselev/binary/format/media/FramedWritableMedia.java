@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+
+import java.io.IOException;
+
+/**
+ * Writes top-level objects as frames: LENGTH(1-5b), OBJECT(n), where length is a packed integer holding the size of
+ * serialized object in bytes. Framing allows receiver to split stream without parsing objects
+ * (see {@link FramedReadableMedia}).
+ * Each object is serialized to the internal re-usable buffer first, so it's length is known before object bytes are written.
+ * This class is not thread safe.
+ */
+public final class FramedWritableMedia {
+
+    private final BinaryOutput out;
+
+    private final WritableMedia media;
+
+    private final ByteArrayBinaryOutput frame;
+
+    private final WritableMedia frameMedia;
+
+    /**
+     * @param out            the output to write frames to
+     * @param userTypeOutput the user type output
+     */
+    public FramedWritableMedia(BinaryOutput out, UserTypeOutput userTypeOutput) {
+        this.out = out;
+        this.media = new SimpleWritableMedia(out, userTypeOutput);
+        this.frame = new ByteArrayBinaryOutput();
+        this.frameMedia = new SimpleWritableMedia(this.frame, userTypeOutput);
+    }
+
+    /**
+     * Writes object as a separate frame
+     *
+     * @param value the value to write
+     * @param <T>   the type of value
+     * @throws IOException if I/O error occurred.
+     */
+    public <T> void writeObject(T value) throws IOException {
+        this.frame.reset();
+        this.frameMedia.writeObject(value);
+        writeFrame(this.frame.array(), 0, this.frame.position());
+    }
+
+    /**
+     * Writes already serialized object (for example - the one returned by {@link FramedReadableMedia#readFrame()}) as a frame.
+     *
+     * @param data   the array holding serialized object
+     * @param offset the offset of object in array
+     * @param length the length of serialized object
+     * @throws IOException if I/O error occurred.
+     */
+    public void writeFrame(byte[] data, int offset, int length) throws IOException {
+        this.media.writePackedInteger(length);
+        this.out.write(data, offset, length);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.input.ChannelBinaryInput;
+import com.github.ykiselev.binary.format.input.NeedMoreBytesException;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Incremental reader of top-level objects from non-blocking channel. Designed to be called from selector loop:
+ * <pre>
+ * if (reader.fill() == -1) {
+ *     // end of stream
+ * }
+ * reader.readAvailable(Item.class, items);
+ * </pre>
+ * Objects are decoded only when all their bytes are staged, incomplete object is retained in staging buffer.
+ * <p>
+ * If stream is written by {@link FramedWritableMedia} (reader is created with {@code framed = true}), length of each
+ * object is known in advance, so object is decoded once, when the whole frame is staged.
+ * Otherwise there is no way to tell if object is complete without decoding it, so decoding of incomplete object is
+ * started from the beginning after each {@link #fill()} until it succeeds: object which arrives in k reads costs k
+ * partial decodes, which is quadratic in object size for small reads. Also user type input may be invoked several
+ * times for the same object, so it should not have side effects. Prefer framed streams for large objects.
+ * This class is not thread safe.
+ */
+public final class NonBlockingReader {
+
+    private final ChannelBinaryInput input;
+
+    private final ReadableMedia media;
+
+    /**
+     * Whether each object is prefixed with its length (see {@link FramedWritableMedia})
+     */
+    private final boolean framed;
+
+    /**
+     * Number of staged bytes expected after current frame
+     */
+    private int frameEnd;
+
+    /**
+     * @param input         the input over non-blocking channel
+     * @param userTypeInput the input to read user types from
+     * @param framed        whether stream is written by {@link FramedWritableMedia}
+     */
+    public NonBlockingReader(ChannelBinaryInput input, UserTypeInput userTypeInput, boolean framed) {
+        this.input = input;
+        this.media = new SimpleReadableMedia(input, userTypeInput);
+        this.framed = framed;
+    }
+
+    /**
+     * @param input         the input over non-blocking channel
+     * @param userTypeInput the input to read user types from
+     */
+    public NonBlockingReader(ChannelBinaryInput input, UserTypeInput userTypeInput) {
+        this(input, userTypeInput, false);
+    }
+
+    /**
+     * Reads bytes available in channel
+     *
+     * @return the number of bytes read or -1 if channel has reached end-of-stream
+     * @throws IOException if an I/O error occurs
+     */
+    public int fill() throws IOException {
+        return this.input.fill();
+    }
+
+    /**
+     * Reads length of the next frame
+     *
+     * @return true if the whole frame is staged
+     */
+    private boolean frameStaged() throws IOException {
+        final int length = this.media.readPackedInteger();
+        final int available = this.input.available();
+        if (available < length) {
+            return false;
+        }
+        this.frameEnd = available - length;
+        return true;
+    }
+
+    /**
+     * Decodes all the complete objects from staged bytes. If decoding fails, staged bytes are returned to the start
+     * of the object which failed to decode.
+     *
+     * @param clazz  the class of objects
+     * @param target the collection to add decoded objects to
+     * @param <T>    the type of objects
+     * @return the number of decoded objects (zero if more bytes needed to decode next object)
+     * @throws IOException if staged data is malformed
+     */
+    public <T> int readAvailable(Class<T> clazz, Collection<? super T> target) throws IOException {
+        int count = 0;
+        while (this.input.available() > 0) {
+            this.input.mark();
+            T value = null;
+            boolean decoded = false;
+            try {
+                if (!this.framed || frameStaged()) {
+                    value = this.media.readObject(clazz);
+                    if (this.framed && this.input.available() != this.frameEnd) {
+                        throw new IOException("Object does not occupy the whole frame!");
+                    }
+                    decoded = true;
+                }
+            } catch (NeedMoreBytesException e) {
+                // wait for the next fill
+            } finally {
+                if (decoded) {
+                    this.input.unmark();
+                } else {
+                    this.input.reset();
+                }
+            }
+            if (!decoded) {
+                break;
+            }
+            target.add(value);
+            count++;
+        }
+        return count;
+    }
+}
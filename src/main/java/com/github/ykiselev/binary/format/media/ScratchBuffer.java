@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Little-endian scratch buffer used by media classes to convert primitive arrays to/from bytes in large blocks.
+ * Typed views share the content of byte array so array chunk is copied with single bulk operation.
+ * Views are cleared through {@link Buffer} to keep byte code compatible with pre-9 runtimes.
+ * This class is not thread safe.
+ */
+final class ScratchBuffer {
+
+    static final int SIZE = 8 * 1024;
+
+    private final byte[] array = new byte[SIZE];
+
+    private final ByteBuffer bytes = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final CharBuffer chars = bytes.asCharBuffer();
+
+    private final ShortBuffer shorts = bytes.asShortBuffer();
+
+    private final IntBuffer ints = bytes.asIntBuffer();
+
+    private final LongBuffer longs = bytes.asLongBuffer();
+
+    private final FloatBuffer floats = bytes.asFloatBuffer();
+
+    private final DoubleBuffer doubles = bytes.asDoubleBuffer();
+
+    byte[] array() {
+        return array;
+    }
+
+    CharBuffer chars() {
+        ((Buffer) chars).clear();
+        return chars;
+    }
+
+    ShortBuffer shorts() {
+        ((Buffer) shorts).clear();
+        return shorts;
+    }
+
+    IntBuffer ints() {
+        ((Buffer) ints).clear();
+        return ints;
+    }
+
+    LongBuffer longs() {
+        ((Buffer) longs).clear();
+        return longs;
+    }
+
+    FloatBuffer floats() {
+        ((Buffer) floats).clear();
+        return floats;
+    }
+
+    DoubleBuffer doubles() {
+        ((Buffer) doubles).clear();
+        return doubles;
+    }
+}
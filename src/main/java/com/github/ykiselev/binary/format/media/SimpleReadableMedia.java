@@ -16,17 +16,27 @@
 
 package com.github.ykiselev.binary.format.media;
 
+import com.github.ykiselev.binary.format.Features;
 import com.github.ykiselev.binary.format.ReadableMedia;
 import com.github.ykiselev.binary.format.Types;
 import com.github.ykiselev.binary.format.buffers.ArrayFactory;
+import com.github.ykiselev.binary.format.buffers.SimpleArrayFactory;
 import com.github.ykiselev.binary.format.input.BinaryInput;
+import com.github.ykiselev.binary.format.input.SliceableBinaryInput;
 import com.github.ykiselev.binary.format.input.UserTypeInput;
 import com.github.ykiselev.binary.format.output.BinaryOutput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
 import com.github.ykiselev.binary.format.output.NoOpBinaryOutput;
+import com.github.ykiselev.binary.format.strings.StringCache;
+import com.github.ykiselev.binary.format.strings.Utf8Sequence;
 
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Simple implementation of {@link ReadableMedia} interface.
@@ -38,29 +48,152 @@ public final class SimpleReadableMedia implements ReadableMedia {
 
     private static final Charset UTF_8 = Charset.forName("UTF-8");
 
+    /**
+     * Object table placeholder for object which is being read and is not yet published
+     */
+    private static final Object PENDING = new Object();
+
+    /**
+     * Object table placeholder for object which was copied by {@link #readRest(BinaryOutput, ArrayFactory)}
+     */
+    private static final Object SKIPPED = new Object();
+
     private final BinaryInput input;
 
     private final UserTypeInput userTypeInput;
 
+    private final StringCache stringCache;
+
+    /**
+     * String table (either {@link String} or {@link Utf8Sequence} by index) or {@code null} if
+     * {@link Features#STRING_REFERENCES} is not enabled.
+     */
+    private final List<CharSequence> strings;
+
+    /**
+     * Object table or {@code null} if {@link Features#OBJECT_REFERENCES} is not enabled.
+     */
+    private final List<Object> objects;
+
+    /**
+     * Whether each user object starts with packed type id (see {@link Features#TYPE_IDS})
+     */
+    private final boolean typeIds;
+
+    private final int features;
+
+    /**
+     * Whether {@link Features#header(int)} is checked (or not expected as there are no features)
+     */
+    private boolean started;
+
+    /**
+     * Index of innermost object being read or -1
+     */
+    private int pending = -1;
+
+    /**
+     * Set when end marker of object being read was consumed by {@link #readRest(BinaryOutput, ArrayFactory)} or
+     * {@link #skipObject()}
+     */
+    private boolean ended;
+
+    /**
+     * Type byte returned by {@link #peekType()} and not yet consumed or -1
+     */
+    private int peeked = -1;
+
+    private ScratchBuffer scratch;
+
     /**
      * Main ctor
      *
      * @param input         the input to read from
      * @param userTypeInput the input to read user types from
+     * @param stringCache   the cache to look up strings in or {@code null} to decode each string
+     * @param features      the set of optional {@link Features}
      */
-    public SimpleReadableMedia(BinaryInput input, UserTypeInput userTypeInput) {
+    public SimpleReadableMedia(BinaryInput input, UserTypeInput userTypeInput, StringCache stringCache, int features) {
         this.input = input;
         this.userTypeInput = userTypeInput;
+        this.stringCache = stringCache;
+        this.strings = Features.isEnabled(features, Features.STRING_REFERENCES) ? new ArrayList<CharSequence>() : null;
+        this.objects = Features.isEnabled(features, Features.OBJECT_REFERENCES) ? new ArrayList<Object>() : null;
+        this.typeIds = Features.isEnabled(features, Features.TYPE_IDS);
+        this.features = features;
+        this.started = features == Features.NONE;
+    }
+
+    /**
+     * @param input         the input to read from
+     * @param userTypeInput the input to read user types from
+     * @param stringCache   the cache to look up strings in or {@code null} to decode each string
+     */
+    public SimpleReadableMedia(BinaryInput input, UserTypeInput userTypeInput, StringCache stringCache) {
+        this(input, userTypeInput, stringCache, Features.NONE);
+    }
+
+    /**
+     * @param input         the input to read from
+     * @param userTypeInput the input to read user types from
+     */
+    public SimpleReadableMedia(BinaryInput input, UserTypeInput userTypeInput) {
+        this(input, userTypeInput, null);
+    }
+
+    private ScratchBuffer scratch() {
+        if (this.scratch == null) {
+            this.scratch = new ScratchBuffer();
+        }
+        return this.scratch;
+    }
+
+    /**
+     * Checks header before the first value. Each value starts with {@link #read()} or {@link #peekType()} so header is
+     * checked there.
+     */
+    private void start() throws IOException {
+        if (!this.started) {
+            Features.checkHeader(this.input.read(), this.features);
+            this.started = true;
+        }
     }
 
     private int read() throws IOException {
+        final int result = this.peeked;
+        if (result >= 0) {
+            this.peeked = -1;
+            return result;
+        }
+        start();
         return this.input.read();
     }
 
+    @Override
+    public int peekType() throws IOException {
+        if (this.peeked < 0) {
+            start();
+            this.peeked = this.input.read();
+        }
+        return this.peeked;
+    }
+
     private void read(byte[] buffer, int length) throws IOException {
         this.input.read(buffer, length);
     }
 
+    /**
+     * Returns next {@code length} bytes as a view if input supports slicing, or as a newly allocated buffer otherwise.
+     */
+    private ByteBuffer slice(int length) throws IOException {
+        if (this.input instanceof SliceableBinaryInput) {
+            return ((SliceableBinaryInput) this.input).slice(length);
+        }
+        final byte[] tmp = new byte[length];
+        read(tmp, length);
+        return ByteBuffer.wrap(tmp).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     @Override
     public int readPackedInteger() throws IOException {
         return readPackedInteger(NoOpBinaryOutput.INSTANCE);
@@ -85,15 +218,15 @@ public final class SimpleReadableMedia implements ReadableMedia {
     }
 
     private short readInt16() throws IOException {
-        return (short) (read() + (read() << 8));
+        return this.input.readShortLE();
     }
 
     private int readInt32() throws IOException {
-        return ((int) readInt16() & 0xffff) + (((int) readInt16() & 0xffff) << 16);
+        return this.input.readIntLE();
     }
 
     private long readInt64() throws IOException {
-        return ((long) readInt32() & 0xffffffffL) + (((long) readInt32() & 0xffffffffL) << 32L);
+        return this.input.readLongLE();
     }
 
     private float readFloat32() throws IOException {
@@ -114,17 +247,69 @@ public final class SimpleReadableMedia implements ReadableMedia {
             final int length = readPackedInteger();
             if (length == 0) {
                 result = "";
+            } else if (this.stringCache != null && length <= ScratchBuffer.SIZE) {
+                final byte[] tmp = scratch().array();
+                read(tmp, length);
+                result = this.stringCache.get(tmp, 0, length);
             } else {
                 final byte[] tmp = new byte[length];
                 read(tmp, length);
                 result = new String(tmp, UTF_8);
             }
+            if (this.strings != null && Types.isShared(length)) {
+                this.strings.add(result);
+            }
+        } else if (type == Types.STRING_REF && this.strings != null) {
+            result = sharedString(readPackedInteger()).toString();
         } else {
             throw new IOException("Not a string: " + type);
         }
         return result;
     }
 
+    /**
+     * @param index the index in string table
+     * @return the previously read string
+     */
+    private CharSequence sharedString(int index) throws IOException {
+        if (index >= this.strings.size()) {
+            throw new IOException("Unknown string reference: " + index);
+        }
+        return this.strings.get(index);
+    }
+
+    /**
+     * @param index the index in string table
+     * @return the previously read string as encoded sequence
+     */
+    private Utf8Sequence sharedSequence(int index) throws IOException {
+        final CharSequence value = sharedString(index);
+        if (value instanceof Utf8Sequence) {
+            return (Utf8Sequence) value;
+        }
+        final Utf8Sequence result = new Utf8Sequence(ByteBuffer.wrap(value.toString().getBytes(UTF_8)));
+        this.strings.set(index, result);
+        return result;
+    }
+
+    @Override
+    public Utf8Sequence readStringAsCharSequence() throws IOException {
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        } else if (type == Types.STRING_REF && this.strings != null) {
+            return sharedSequence(readPackedInteger());
+        } else if (type != Types.STRING) {
+            throw new IOException("Not a string: " + type);
+        }
+        final int length = readPackedInteger();
+        final Utf8Sequence result = new Utf8Sequence(slice(length));
+        if (this.strings != null && Types.isShared(length)) {
+            this.strings.add(result);
+        }
+        return result;
+    }
+
     @Override
     public byte readByte() throws IOException {
         final int type = read();
@@ -140,7 +325,7 @@ public final class SimpleReadableMedia implements ReadableMedia {
         if ((type & Types.MASK) != Types.BOOLEAN) {
             throw new IOException("Not a boolean: " + type);
         }
-        return (type & 0x08) != 0;
+        return (type & (1 << 4)) != 0;
     }
 
     @Override
@@ -168,7 +353,7 @@ public final class SimpleReadableMedia implements ReadableMedia {
         final int type = read();
         switch (type) {
             case Types.BYTE:
-                result = (short) read();
+                result = (byte) read();
                 break;
 
             case Types.SHORT:
@@ -187,7 +372,7 @@ public final class SimpleReadableMedia implements ReadableMedia {
         final int type = read();
         switch (type) {
             case Types.BYTE:
-                result = (short) read();
+                result = (byte) read();
                 break;
 
             case Types.SHORT:
@@ -210,7 +395,7 @@ public final class SimpleReadableMedia implements ReadableMedia {
         final int type = read();
         switch (type) {
             case Types.BYTE:
-                result = (short) read();
+                result = (byte) read();
                 break;
 
             case Types.SHORT:
@@ -252,17 +437,70 @@ public final class SimpleReadableMedia implements ReadableMedia {
     @Override
     public <T> T readObject(Class<T> clazz) throws IOException {
         final int type = read();
-        if (type != Types.USER_TYPE) {
+        if (type == Types.NULL) {
+            return null;
+        } else if (type == Types.OBJECT_REF && this.objects != null) {
+            return sharedObject(readPackedInteger());
+        } else if (type != Types.USER_TYPE) {
             throw new IOException("Not a user-type: " + type);
         }
         return readObjectValue(clazz);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Does nothing if {@link Features#OBJECT_REFERENCES} is not enabled.
+     */
+    @Override
+    public void publish(Object value) {
+        if (this.objects != null && this.pending >= 0) {
+            this.objects.set(this.pending, value);
+        }
+    }
+
+    /**
+     * @param index the index in object table
+     * @return the previously read object
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T sharedObject(int index) throws IOException {
+        if (index >= this.objects.size()) {
+            throw new IOException("Unknown object reference: " + index);
+        }
+        final Object result = this.objects.get(index);
+        if (result == PENDING) {
+            throw new IOException("Reference to unpublished object: " + index);
+        } else if (result == SKIPPED) {
+            throw new IOException("Reference to skipped object: " + index);
+        }
+        return (T) result;
+    }
+
     private <T> T readObjectValue(Class<T> clazz) throws IOException {
-        final T result = this.userTypeInput.read(this, clazz);
-        final int endMarker = read();
-        if (endMarker != Types.END_MARKER) {
-            throw new IOException("Expected end marker: " + endMarker);
+        final T result;
+        this.ended = false;
+        if (this.objects != null) {
+            final int index = this.objects.size();
+            final int outer = this.pending;
+            this.objects.add(PENDING);
+            this.pending = index;
+            try {
+                result = this.userTypeInput.read(this, clazz);
+            } finally {
+                this.pending = outer;
+            }
+            this.objects.set(index, result);
+        } else {
+            result = this.userTypeInput.read(this, clazz);
+        }
+        if (this.ended) {
+            this.ended = false;
+        } else {
+            final int endMarker = read();
+            if (endMarker != Types.END_MARKER) {
+                throw new IOException("Expected end marker: " + endMarker);
+            }
         }
         return result;
     }
@@ -278,96 +516,368 @@ public final class SimpleReadableMedia implements ReadableMedia {
 
     @Override
     public byte[] readByteArray() throws IOException {
-        ensureArray(read(), Types.BYTE);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.BYTE);
         final int length = readPackedInteger();
         final byte[] result = new byte[length];
         read(result, length);
         return result;
     }
 
+    @Override
+    public ByteBuffer readByteSlice() throws IOException {
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.BYTE);
+        return slice(readPackedInteger());
+    }
+
     @Override
     public char[] readCharArray() throws IOException {
-        ensureArray(read(), Types.CHAR);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.CHAR);
         final int length = readPackedInteger();
         final char[] result = new char[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = (char) readInt16();
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 2;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 2);
+            scratch.chars().get(result, offset, count);
         }
         return result;
     }
 
     @Override
     public short[] readShortArray() throws IOException {
-        ensureArray(read(), Types.SHORT);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.SHORT);
         final int length = readPackedInteger();
         final short[] result = new short[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = readInt16();
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 2;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 2);
+            scratch.shorts().get(result, offset, count);
         }
         return result;
     }
 
     @Override
     public int[] readIntArray() throws IOException {
-        ensureArray(read(), Types.INT);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.INT);
         final int length = readPackedInteger();
         final int[] result = new int[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = readInt32();
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 4;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 4);
+            scratch.ints().get(result, offset, count);
         }
         return result;
     }
 
     @Override
     public long[] readLongArray() throws IOException {
-        ensureArray(read(), Types.LONG);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.LONG);
         final int length = readPackedInteger();
         final long[] result = new long[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = readInt64();
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 8;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 8);
+            scratch.longs().get(result, offset, count);
         }
         return result;
     }
 
     @Override
     public float[] readFloatArray() throws IOException {
-        ensureArray(read(), Types.FLOAT);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.FLOAT);
         final int length = readPackedInteger();
         final float[] result = new float[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = readFloat32();
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 4;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 4);
+            scratch.floats().get(result, offset, count);
         }
         return result;
     }
 
     @Override
     public double[] readDoubleArray() throws IOException {
-        ensureArray(read(), Types.DOUBLE);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.DOUBLE);
         final int length = readPackedInteger();
         final double[] result = new double[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = readFloat64();
+        final ScratchBuffer scratch = scratch();
+        final int chunk = ScratchBuffer.SIZE / 8;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            read(scratch.array(), count * 8);
+            scratch.doubles().get(result, offset, count);
         }
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Note: unless {@link Features#OBJECT_REFERENCES} or {@link Features#TYPE_IDS} is enabled, items are not prefixed
+     * with type byte and each item is read as an object, so null items are not supported.
+     */
     @Override
     public <T> T[] readObjectArray(Class<T> itemType) throws IOException {
-        ensureArray(read(), Types.USER_TYPE);
+        final int type = read();
+        if (type == Types.NULL) {
+            return null;
+        }
+        ensureArray(type, Types.USER_TYPE);
         final int length = readPackedInteger();
         @SuppressWarnings("unchecked") final T[] result = (T[]) Array.newInstance(itemType, length);
-        for (int i = 0; i < length; i++) {
-            result[i] = readObjectValue(itemType);
+        if (this.objects != null || this.typeIds) {
+            for (int i = 0; i < length; i++) {
+                result[i] = readObject(itemType);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[i] = readObjectValue(itemType);
+            }
         }
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Note: not supported if {@link Features#OBJECT_REFERENCES} is enabled as the rest may contain references to objects
+     * which bytes are already consumed, so it can not be copied as self-contained blob.
+     */
     @Override
     public void readRest(BinaryOutput output, ArrayFactory arrayFactory) throws IOException {
+        if (this.objects != null) {
+            throw new IOException("Rest of object can not be copied with object references enabled");
+        }
         final Scanner scanner = new Scanner(output, arrayFactory);
         while (scanner.depth() > 0) {
             scanner.scan();
         }
+        this.ended = true;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        skipValue(read());
+    }
+
+    @Override
+    public void skipObject() throws IOException {
+        skipFields(read());
+        this.ended = true;
+    }
+
+    /**
+     * Skips value which type byte is already read
+     *
+     * @param type the type byte
+     * @throws IOException if I/O error occurred
+     */
+    private void skipValue(int type) throws IOException {
+        final int size = Types.sizeOf(type);
+        if (size > 0) {
+            skipBytes(size);
+            return;
+        }
+        switch (type) {
+            case Types.NULL:
+                break;
+
+            case Types.STRING:
+                final int length = readPackedInteger();
+                if (this.strings != null && Types.isShared(length)) {
+                    final byte[] bytes = new byte[length];
+                    read(bytes, length);
+                    this.strings.add(new Utf8Sequence(ByteBuffer.wrap(bytes)));
+                } else {
+                    skipBytes(length);
+                }
+                break;
+
+            case Types.USER_TYPE:
+                if (this.objects != null) {
+                    this.objects.add(SKIPPED);
+                }
+                if (this.typeIds) {
+                    readPackedInteger();
+                }
+                skipFields(read());
+                break;
+
+            case Types.END_MARKER:
+                throw new IOException("Unexpected end marker");
+
+            default:
+                if ((type == Types.STRING_REF && this.strings != null)
+                        || (type == Types.OBJECT_REF && this.objects != null)) {
+                    readPackedInteger();
+                } else if ((type & Types.MASK) == Types.BOOLEAN) {
+                    break;
+                } else if (Types.isArray(type)) {
+                    skipArray(Types.subType(type), readPackedInteger());
+                } else {
+                    throw new IOException("Invalid type byte: " + type);
+                }
+        }
+    }
+
+    /**
+     * Skips fields of user object till the end marker (inclusive)
+     *
+     * @param type the type byte of first field (already read)
+     * @throws IOException if I/O error occurred
+     */
+    private void skipFields(int type) throws IOException {
+        while (type != Types.END_MARKER) {
+            skipValue(type);
+            type = read();
+        }
+    }
+
+    private void skipArray(int subType, int length) throws IOException {
+        final int size = Types.sizeOf(subType);
+        if (size > 0) {
+            skipBytes((long) size * length);
+        } else if (subType == Types.USER_TYPE) {
+            // items are read the same way as readObjectArray does: unprefixed items are always objects
+            for (int i = 0; i < length; i++) {
+                if (this.objects != null || this.typeIds) {
+                    skipValue(read());
+                } else {
+                    skipFields(read());
+                }
+            }
+        } else {
+            throw new IOException("Invalid array item type: " + subType);
+        }
+    }
+
+    /**
+     * Skips bytes without reading them if input supports it (arrays, buffers, mapped files, seekable streams)
+     */
+    private void skipBytes(long bytes) throws IOException {
+        for (long left = bytes; left > 0; ) {
+            final int chunk = (int) Math.min(left, Integer.MAX_VALUE);
+            this.input.skip(chunk);
+            left -= chunk;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Note: if {@link Features#STRING_REFERENCES} is enabled, the rest is always copied as string references are
+     * resolved to inline strings. Not supported if {@link Features#OBJECT_REFERENCES} is enabled (see
+     * {@link #readRest(BinaryOutput, ArrayFactory)}).
+     */
+    @Override
+    public ByteBuffer readRest() throws IOException {
+        if (this.objects != null) {
+            throw new IOException("Rest of object can not be copied with object references enabled");
+        }
+        if (this.input instanceof SliceableBinaryInput && this.strings == null) {
+            final SliceableBinaryInput sliceable = (SliceableBinaryInput) this.input;
+            final long start = sliceable.offset() - (this.peeked >= 0 ? 1 : 0);
+            readRest(NoOpBinaryOutput.INSTANCE, null);
+            // scanner has consumed end marker
+            final long end = sliceable.offset();
+            sliceable.offset(start);
+            final ByteBuffer result = sliceable.slice((int) (end - start - 1));
+            sliceable.skip(1);
+            return result;
+        }
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        readRest(output, new SimpleArrayFactory(256));
+        return ByteBuffer.wrap(output.array(), 0, output.position())
+                .slice()
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Scans the blob to fill string and object tables as reader would do while reading it.
+     *
+     * @param input    the input with blob written by {@link #readRest(BinaryOutput, ArrayFactory)}
+     * @param end      the offset of the end of blob
+     * @param features the set of {@link Features}
+     * @return the media with filled tables
+     * @throws IOException if blob is malformed or contains references
+     */
+    static SimpleReadableMedia scan(SliceableBinaryInput input, long end, int features) throws IOException {
+        final SimpleReadableMedia media = new SimpleReadableMedia(input, null, null, features);
+        // blob is a part of stream, there is no header
+        media.started = true;
+        final Scanner scanner = media.new Scanner(NoOpBinaryOutput.INSTANCE, new SimpleArrayFactory(256));
+        while (input.offset() < end) {
+            scanner.scan();
+        }
+        return media;
+    }
+
+    /**
+     * Clears string and object tables. Should be called at the same position of stream as
+     * {@link SimpleWritableMedia#reset()} was called by writer, for example between messages of long-lived stream.
+     */
+    public void reset() {
+        if (this.strings != null) {
+            this.strings.clear();
+        }
+        if (this.objects != null) {
+            this.objects.clear();
+        }
+    }
+
+    /**
+     * @return the strings from string table in order of appearance
+     */
+    List<CharSequence> sharedStrings() {
+        return this.strings;
+    }
+
+    /**
+     * @return the number of entries in object table
+     */
+    int objectCount() {
+        return this.objects.size();
     }
 
     /**
@@ -407,7 +917,14 @@ public final class SimpleReadableMedia implements ReadableMedia {
             if (this.depth <= 0) {
                 return;
             }
-            output.write(type);
+            if (type != Types.STRING_REF) {
+                output.write(type);
+            }
+            final int size = Types.sizeOf(type);
+            if (size > 0) {
+                copy(size);
+                return;
+            }
             switch (type) {
                 case Types.NULL:
                 case Types.END_MARKER:
@@ -415,55 +932,52 @@ public final class SimpleReadableMedia implements ReadableMedia {
 
                 case Types.USER_TYPE:
                     this.depth++;
+                    if (objects != null) {
+                        objects.add(SKIPPED);
+                    }
+                    if (typeIds) {
+                        readPackedInteger(output);
+                    }
                     break;
 
-                case Types.STRING:
-                    copy(readPackedInteger(output));
-                    break;
-
-                case Types.BYTE:
-                    output.write(read());
-                    break;
-
-                case Types.CHAR:
-                case Types.SHORT:
-                    output.write(read());
-                    output.write(read());
-                    break;
-
-                case Types.INT:
-                case Types.FLOAT:
-                    copy(4);
+                case Types.OBJECT_REF:
+                    if (objects == null) {
+                        throw new IOException("Invalid type byte: " + type);
+                    }
+                    // only reachable while scanning blob passed to writeRest
+                    throw new IOException("Object reference can not be copied: " + readPackedInteger());
+
+                case Types.STRING: {
+                    final int length = readPackedInteger(output);
+                    if (strings != null && Types.isShared(length)) {
+                        final byte[] bytes = new byte[length];
+                        read(bytes, length);
+                        output.write(bytes, 0, length);
+                        strings.add(new Utf8Sequence(ByteBuffer.wrap(bytes)));
+                    } else {
+                        copy(length);
+                    }
                     break;
+                }
 
-                case Types.LONG:
-                case Types.DOUBLE:
-                    copy(8);
+                case Types.STRING_REF:
+                    if (strings == null) {
+                        throw new IOException("Invalid type byte: " + type);
+                    }
+                    inline(sharedSequence(readPackedInteger()).bytes());
                     break;
 
                 default:
+                    if ((type & Types.MASK) == Types.BOOLEAN) {
+                        break;
+                    }
                     if (Types.isArray(type)) {
                         final int subType = Types.subType(type);
                         final int length = readPackedInteger(output);
-                        switch (subType) {
-                            case Types.BYTE:
-                                copy(length);
-                                break;
-
-                            case Types.CHAR:
-                            case Types.SHORT:
-                                copy(2 * length);
-                                break;
-
-                            case Types.INT:
-                            case Types.FLOAT:
-                                copy(4 * length);
-                                break;
-
-                            case Types.LONG:
-                            case Types.DOUBLE:
-                                copy(8 * length);
-                                break;
+                        if (subType == Types.USER_TYPE && objects == null && !typeIds) {
+                            items(length);
+                        } else {
+                            copy((long) Types.sizeOf(subType) * length);
                         }
                     } else {
                         throw new IOException("Invalid type byte: " + type);
@@ -471,10 +985,67 @@ public final class SimpleReadableMedia implements ReadableMedia {
             }
         }
 
-        void copy(int bytes) throws IOException {
-            final byte[] buffer = arrayFactory.get(bytes);
-            read(buffer, bytes);
-            output.write(buffer, 0, bytes);
+        /**
+         * Scans items of object array which are not prefixed with type byte (the same way as readObjectArray reads
+         * them): each item is a list of fields up to its own end marker. Prefixed items are scanned as usual values.
+         *
+         * @param length the number of items
+         */
+        void items(int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                final int outer = this.depth;
+                this.depth++;
+                while (this.depth > outer) {
+                    scan();
+                }
+            }
+        }
+
+        /**
+         * Copies {@code bytes} bytes from input to output in chunks of at most {@link ScratchBuffer#SIZE} bytes, so
+         * memory usage does not depend on field size
+         */
+        void copy(long bytes) throws IOException {
+            if (output == NoOpBinaryOutput.INSTANCE) {
+                skipBytes(bytes);
+                return;
+            }
+            final byte[] buffer = arrayFactory.get((int) Math.min(bytes, ScratchBuffer.SIZE));
+            try {
+                for (long left = bytes; left > 0; ) {
+                    final int chunk = (int) Math.min(left, ScratchBuffer.SIZE);
+                    read(buffer, chunk);
+                    output.write(buffer, 0, chunk);
+                    left -= chunk;
+                }
+            } finally {
+                arrayFactory.release(buffer);
+            }
+        }
+
+        /**
+         * Writes resolved string reference as an inline string so output does not depend on this reader's string table.
+         */
+        void inline(ByteBuffer bytes) throws IOException {
+            output.write(Types.STRING);
+            for (int value = bytes.remaining(); ; ) {
+                final int bits = value & 0x7f;
+                value >>>= 7;
+                if (value > 0) {
+                    output.write(bits | 0x80);
+                } else {
+                    output.write(bits);
+                    break;
+                }
+            }
+            final int length = bytes.remaining();
+            final byte[] buffer = arrayFactory.get(length);
+            try {
+                bytes.get(buffer, 0, length);
+                output.write(buffer, 0, length);
+            } finally {
+                arrayFactory.release(buffer);
+            }
         }
 
     }
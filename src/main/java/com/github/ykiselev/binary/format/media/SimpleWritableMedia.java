@@ -16,31 +16,97 @@
 
 package com.github.ykiselev.binary.format.media;
 
+import com.github.ykiselev.binary.format.Features;
 import com.github.ykiselev.binary.format.Types;
 import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.ByteBufferBinaryInput;
+import com.github.ykiselev.binary.format.input.SliceableBinaryInput;
 import com.github.ykiselev.binary.format.output.BinaryOutput;
 import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import com.github.ykiselev.binary.format.strings.Utf8;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Created by Y.Kiselev on 01.09.2016.
  */
 public final class SimpleWritableMedia implements WritableMedia {
 
-    private static final Charset UTF_8 = Charset.forName("UTF-8");
-
     private final BinaryOutput out;
 
     private final UserTypeOutput userTypeOutput;
 
-    public SimpleWritableMedia(BinaryOutput out, UserTypeOutput userTypeOutput) {
+    /**
+     * String table (string to index) or {@code null} if {@link Features#STRING_REFERENCES} is not enabled.
+     */
+    private final Map<String, Integer> strings;
+
+    private int stringCount;
+
+    /**
+     * Object table (object identity to index) or {@code null} if {@link Features#OBJECT_REFERENCES} is not enabled.
+     */
+    private final Map<Object, Integer> objects;
+
+    private int objectCount;
+
+    private final int features;
+
+    /**
+     * Whether object array items are written with {@link Types#USER_TYPE} prefix
+     */
+    private final boolean prefixedItems;
+
+    /**
+     * Whether {@link Features#header(int)} is written (or not needed as there are no features)
+     */
+    private boolean started;
+
+    private ScratchBuffer scratch;
+
+    /**
+     * @param out            the output to write to
+     * @param userTypeOutput the output to write user types to
+     * @param features       the set of optional {@link Features}
+     */
+    public SimpleWritableMedia(BinaryOutput out, UserTypeOutput userTypeOutput, int features) {
         this.out = out;
         this.userTypeOutput = userTypeOutput;
+        this.features = features;
+        this.strings = Features.isEnabled(features, Features.STRING_REFERENCES) ? new HashMap<String, Integer>() : null;
+        this.objects = Features.isEnabled(features, Features.OBJECT_REFERENCES) ? new IdentityHashMap<Object, Integer>() : null;
+        this.prefixedItems = this.objects != null || Features.isEnabled(features, Features.TYPE_IDS);
+        this.started = features == Features.NONE;
+    }
+
+    public SimpleWritableMedia(BinaryOutput out, UserTypeOutput userTypeOutput) {
+        this(out, userTypeOutput, Features.NONE);
+    }
+
+    private ScratchBuffer scratch() {
+        if (this.scratch == null) {
+            this.scratch = new ScratchBuffer();
+        }
+        return this.scratch;
+    }
+
+    /**
+     * Writes header before the first value. Each value starts with {@link #write(int)} so header is checked there.
+     */
+    private void start() throws IOException {
+        if (!this.started) {
+            this.started = true;
+            this.out.write(Features.header(this.features));
+        }
     }
 
     private void write(int value) throws IOException {
+        start();
         this.out.write(value);
     }
 
@@ -66,20 +132,15 @@ public final class SimpleWritableMedia implements WritableMedia {
     }
 
     private void writeInt16(int value) throws IOException {
-        write(value & 0xff);
-        write((value >>> 8) & 0xff);
+        this.out.writeShortLE((short) value);
     }
 
     private void writeInt32(int value) throws IOException {
-        write(value & 0xff);
-        write((value >>> 8) & 0xff);
-        write((value >>> 16) & 0xff);
-        write((value >>> 24) & 0xff);
+        this.out.writeIntLE(value);
     }
 
     private void writeInt64(long value) throws IOException {
-        writeInt32((int) value);
-        writeInt32((int) (value >>> 32));
+        this.out.writeLongLE(value);
     }
 
     private void writeFloat32(float value) throws IOException {
@@ -103,13 +164,25 @@ public final class SimpleWritableMedia implements WritableMedia {
         if (value == null) {
             writeNull();
         } else {
-            writeType(Types.STRING);
             if (value.length() == 0) {
+                writeType(Types.STRING);
                 writePackedInteger(0);
-            } else {
-                final byte[] bytes = value.getBytes(UTF_8);
-                writePackedInteger(bytes.length);
-                write(bytes, 0, bytes.length);
+                return;
+            }
+            if (this.strings != null) {
+                final Integer index = this.strings.get(value);
+                if (index != null) {
+                    writeType(Types.STRING_REF);
+                    writePackedInteger(index);
+                    return;
+                }
+            }
+            final int length = Utf8.encodedLength(value);
+            writeType(Types.STRING);
+            writePackedInteger(length);
+            Utf8.encode(value, scratch().array(), this.out);
+            if (this.strings != null && Types.isShared(length)) {
+                share(value);
             }
         }
     }
@@ -190,12 +263,33 @@ public final class SimpleWritableMedia implements WritableMedia {
     public <T> void writeObject(T value) throws IOException {
         if (value == null) {
             writeNull();
-        } else {
+        } else if (!writeReference(value)) {
             writeType(Types.USER_TYPE);
             writeValue(value);
         }
     }
 
+    /**
+     * Writes reference to already written object. If object is written for the first time it is added to the object
+     * table (before any of its fields so cycles are resolved to references too).
+     *
+     * @param value the object to write
+     * @return true if reference was written, false if object should be written inline
+     */
+    private boolean writeReference(Object value) throws IOException {
+        if (this.objects == null) {
+            return false;
+        }
+        final Integer index = this.objects.get(value);
+        if (index != null) {
+            writeType(Types.OBJECT_REF);
+            writePackedInteger(index);
+            return true;
+        }
+        this.objects.put(value, this.objectCount++);
+        return false;
+    }
+
     @Override
     public void writeByteArray(byte[] value) throws IOException {
         if (value == null) {
@@ -214,8 +308,12 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.CHAR));
             writePackedInteger(value.length);
-            for (char s : value) {
-                writeInt16((short) s);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 2;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.chars().put(value, offset, count);
+                write(scratch.array(), 0, count * 2);
             }
         }
     }
@@ -227,8 +325,12 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.SHORT));
             writePackedInteger(value.length);
-            for (short s : value) {
-                writeInt16(s);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 2;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.shorts().put(value, offset, count);
+                write(scratch.array(), 0, count * 2);
             }
         }
     }
@@ -240,8 +342,12 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.INT));
             writePackedInteger(value.length);
-            for (int i : value) {
-                writeInt32(i);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 4;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.ints().put(value, offset, count);
+                write(scratch.array(), 0, count * 4);
             }
         }
     }
@@ -253,8 +359,12 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.LONG));
             writePackedInteger(value.length);
-            for (long l : value) {
-                writeInt64(l);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 8;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.longs().put(value, offset, count);
+                write(scratch.array(), 0, count * 8);
             }
         }
     }
@@ -266,8 +376,12 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.FLOAT));
             writePackedInteger(value.length);
-            for (float f : value) {
-                writeFloat32(f);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 4;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.floats().put(value, offset, count);
+                write(scratch.array(), 0, count * 4);
             }
         }
     }
@@ -279,8 +393,12 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.DOUBLE));
             writePackedInteger(value.length);
-            for (double d : value) {
-                writeFloat64(d);
+            final ScratchBuffer scratch = scratch();
+            final int chunk = ScratchBuffer.SIZE / 8;
+            for (int offset = 0; offset < value.length; offset += chunk) {
+                final int count = Math.min(chunk, value.length - offset);
+                scratch.doubles().put(value, offset, count);
+                write(scratch.array(), 0, count * 8);
             }
         }
     }
@@ -292,14 +410,82 @@ public final class SimpleWritableMedia implements WritableMedia {
         } else {
             writeType(Types.array(Types.USER_TYPE));
             writePackedInteger(value.length);
-            for (T item : value) {
-                writeValue(item);
+            if (this.prefixedItems) {
+                for (T item : value) {
+                    writeObject(item);
+                }
+            } else {
+                for (T item : value) {
+                    writeValue(item);
+                }
             }
         }
     }
 
+    /**
+     * Clears string and object tables, so values written so far are no longer referenced and retained. Reader should
+     * call {@link SimpleReadableMedia#reset()} at the same position of stream.
+     */
+    public void reset() {
+        if (this.strings != null) {
+            this.strings.clear();
+            this.stringCount = 0;
+        }
+        if (this.objects != null) {
+            this.objects.clear();
+            this.objectCount = 0;
+        }
+    }
+
+    /**
+     * Adds string to the string table
+     */
+    private void share(String value) {
+        this.strings.put(value, this.stringCount++);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If {@link Features#STRING_REFERENCES} or {@link Features#OBJECT_REFERENCES} is enabled, blob is scanned to add
+     * inline strings to the string table and to skip indices of user objects, so indices stay in sync with reader.
+     * Blob should not contain references.
+     */
     @Override
     public void writeRest(byte[] blob, int count) throws IOException {
+        if (this.strings != null || this.objects != null) {
+            scan(new ByteArrayBinaryInput(blob, 0, count), count);
+        }
+        start();
         write(blob, 0, count);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Blob is scanned the same way as in {@link #writeRest(byte[], int)} if any of reference features is enabled.
+     */
+    @Override
+    public void writeRest(ByteBuffer blob) throws IOException {
+        if (this.strings != null || this.objects != null) {
+            scan(new ByteBufferBinaryInput(blob.duplicate()), blob.limit());
+        }
+        start();
+        this.out.write(blob.duplicate());
+    }
+
+    /**
+     * Adds strings and objects from blob to the string and object tables
+     */
+    private void scan(SliceableBinaryInput input, long end) throws IOException {
+        final SimpleReadableMedia scanned = SimpleReadableMedia.scan(input, end, this.features);
+        if (this.strings != null) {
+            for (CharSequence value : scanned.sharedStrings()) {
+                share(value.toString());
+            }
+        }
+        if (this.objects != null) {
+            this.objectCount += scanned.objectCount();
+        }
+    }
 }
@@ -16,14 +16,19 @@
 
 package com.github.ykiselev.binary.format.output;
 
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
- * Low-level wrapper of output stream, etc
+ * Low-level wrapper of output stream, etc.
+ * Implementations may buffer written data, so {@link #flush()} should be called to push it to the final destination,
+ * and {@link #close()} should be called when output is no longer needed.
  *
  * Created by Y.Kiselev on 02.09.2016.
  */
-public interface BinaryOutput {
+public interface BinaryOutput extends Flushable, Closeable {
 
     /**
      * Writes one byte to the output
@@ -43,4 +48,52 @@ public interface BinaryOutput {
      */
     void write(byte[] data, int offset, int length) throws IOException;
 
+    /**
+     * Writes remaining bytes of the buffer to the output. Buffer position is advanced to its limit.
+     *
+     * @param data the buffer to read bytes from
+     * @throws IOException if I/O error occurred
+     */
+    void write(ByteBuffer data) throws IOException;
+
+    /**
+     * Writes short value as two bytes in little-endian order
+     *
+     * @param value the value to write
+     * @throws IOException if I/O error occurred
+     */
+    void writeShortLE(short value) throws IOException;
+
+    /**
+     * Writes int value as four bytes in little-endian order
+     *
+     * @param value the value to write
+     * @throws IOException if I/O error occurred
+     */
+    void writeIntLE(int value) throws IOException;
+
+    /**
+     * Writes long value as eight bytes in little-endian order
+     *
+     * @param value the value to write
+     * @throws IOException if I/O error occurred
+     */
+    void writeLongLE(long value) throws IOException;
+
+    /**
+     * Writes any buffered data to the underlying storage
+     *
+     * @throws IOException if I/O error occurred
+     */
+    @Override
+    void flush() throws IOException;
+
+    /**
+     * Flushes buffered data and releases underlying resources
+     *
+     * @throws IOException if I/O error occurred
+     */
+    @Override
+    void close() throws IOException;
+
 }
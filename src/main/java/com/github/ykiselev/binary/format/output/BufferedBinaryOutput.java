@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary output collecting written data in internal buffer. Buffer is drained to the {@link Sink} when full,
+ * on {@link #flush()} and on {@link #close()}. Writes larger than buffer go to the sink directly.
+ * This class is not thread safe.
+ */
+public final class BufferedBinaryOutput implements BinaryOutput {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final Sink sink;
+
+    private final byte[] buffer;
+
+    private final ByteBuffer view;
+
+    private int position;
+
+    /**
+     * @param sink       the sink to drain buffer to
+     * @param bufferSize the size of buffer (at least 8 bytes)
+     */
+    public BufferedBinaryOutput(Sink sink, int bufferSize) {
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+        }
+        this.sink = sink;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(this.buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public BufferedBinaryOutput(Sink sink) {
+        this(sink, DEFAULT_BUFFER_SIZE);
+    }
+
+    private void drain() throws IOException {
+        if (this.position > 0) {
+            this.sink.write(this.buffer, 0, this.position);
+            this.position = 0;
+        }
+    }
+
+    /**
+     * Makes sure that at least {@code required} bytes may be put in buffer.
+     *
+     * @param required the number of bytes (not greater than buffer length)
+     * @throws IOException if I/O error occurred
+     */
+    private void ensure(int required) throws IOException {
+        if (this.buffer.length - this.position < required) {
+            drain();
+        }
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        ensure(1);
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        if (length <= this.buffer.length - this.position) {
+            System.arraycopy(data, offset, this.buffer, this.position, length);
+            this.position += length;
+        } else {
+            drain();
+            if (length < this.buffer.length) {
+                System.arraycopy(data, offset, this.buffer, 0, length);
+                this.position = length;
+            } else {
+                this.sink.write(data, offset, length);
+            }
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        if (data.hasArray() && data.remaining() >= this.buffer.length) {
+            drain();
+            this.sink.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            ((Buffer) data).position(data.limit());
+            return;
+        }
+        while (data.hasRemaining()) {
+            ensure(1);
+            final int count = Math.min(this.buffer.length - this.position, data.remaining());
+            data.get(this.buffer, this.position, count);
+            this.position += count;
+        }
+    }
+
+    @Override
+    public void writeShortLE(short value) throws IOException {
+        ensure(2);
+        this.view.putShort(this.position, value);
+        this.position += 2;
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+        ensure(4);
+        this.view.putInt(this.position, value);
+        this.position += 4;
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+        ensure(8);
+        this.view.putLong(this.position, value);
+        this.position += 8;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        this.sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.sink.close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Binary output backed by growable byte array. Unlike {@link java.io.ByteArrayOutputStream} it is not synchronized
+ * and gives direct access to underlying array, so serialized data can be used without final copying.
+ * Instance may be re-used after {@link #reset()}.
+ * This class is not thread safe.
+ */
+public final class ByteArrayBinaryOutput implements BinaryOutput {
+
+    private byte[] array;
+
+    private int position;
+
+    /**
+     * @return the underlying array. Note that array is replaced with bigger one when it's capacity is exhausted.
+     */
+    public byte[] array() {
+        return array;
+    }
+
+    /**
+     * @return the number of bytes written so far
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * @param capacity the initial capacity of array
+     */
+    public ByteArrayBinaryOutput(int capacity) {
+        this.array = new byte[capacity];
+    }
+
+    public ByteArrayBinaryOutput() {
+        this(256);
+    }
+
+    /**
+     * Discards written data. Underlying array is kept for re-use.
+     */
+    public void reset() {
+        this.position = 0;
+    }
+
+    /**
+     * @return the copy of written data
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.array, this.position);
+    }
+
+    private void ensure(int length) {
+        final int required = this.position + length;
+        if (required > this.array.length) {
+            if (required < 0) {
+                throw new OutOfMemoryError("Required array size is too large!");
+            }
+            this.array = Arrays.copyOf(this.array, Math.max(required, this.array.length * 2));
+        }
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        ensure(1);
+        this.array[this.position++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        ensure(length);
+        System.arraycopy(data, offset, this.array, this.position, length);
+        this.position += length;
+    }
+
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        final int length = data.remaining();
+        ensure(length);
+        data.get(this.array, this.position, length);
+        this.position += length;
+    }
+
+    @Override
+    public void writeShortLE(short value) throws IOException {
+        ensure(2);
+        final byte[] a = this.array;
+        final int p = this.position;
+        a[p] = (byte) value;
+        a[p + 1] = (byte) (value >>> 8);
+        this.position = p + 2;
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+        ensure(4);
+        putInt(value);
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+        ensure(8);
+        putInt((int) value);
+        putInt((int) (value >>> 32));
+    }
+
+    private void putInt(int value) {
+        final byte[] a = this.array;
+        final int p = this.position;
+        a[p] = (byte) value;
+        a[p + 1] = (byte) (value >>> 8);
+        a[p + 2] = (byte) (value >>> 16);
+        a[p + 3] = (byte) (value >>> 24);
+        this.position = p + 4;
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary output backed by {@link ByteBuffer} (both heap and direct buffers are supported).
+ * Multi-byte primitives are stored with single bounds-checked call to the buffer.
+ * Note: byte order of supplied buffer is switched to {@link ByteOrder#LITTLE_ENDIAN}.
+ * This class is not thread safe.
+ */
+public final class ByteBufferBinaryOutput implements BinaryOutput {
+
+    private final ByteBuffer buffer;
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @param buffer the buffer to write to (from current position till the limit)
+     */
+    public ByteBufferBinaryOutput(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void ensure(int length) throws IOException {
+        if (this.buffer.remaining() < length) {
+            throw new IOException("Buffer overflow: need " + length + " bytes, only " + this.buffer.remaining() + " left!");
+        }
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        ensure(1);
+        this.buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        ensure(length);
+        this.buffer.put(data, offset, length);
+    }
+
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        ensure(data.remaining());
+        this.buffer.put(data);
+    }
+
+    @Override
+    public void writeShortLE(short value) throws IOException {
+        ensure(2);
+        this.buffer.putShort(value);
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+        ensure(4);
+        this.buffer.putInt(value);
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+        ensure(8);
+        this.buffer.putLong(value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+}
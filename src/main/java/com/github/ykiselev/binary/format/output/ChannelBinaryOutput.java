@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Binary output writing to {@link WritableByteChannel} through direct staging buffer, so channel does not need to copy
+ * data to temporary direct buffer. Channel is expected to be in blocking mode, for non-blocking channels consider
+ * serializing to {@link ByteArrayBinaryOutput} and writing the result from the selector loop.
+ * This class is not thread safe.
+ */
+public final class ChannelBinaryOutput implements BinaryOutput {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final WritableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * @param channel    the channel to write to
+     * @param bufferSize the size of staging buffer (at least 8 bytes)
+     */
+    public ChannelBinaryOutput(WritableByteChannel channel, int bufferSize) {
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public ChannelBinaryOutput(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    private void drain() throws IOException {
+        ((Buffer) this.buffer).flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        ((Buffer) this.buffer).clear();
+    }
+
+    private ByteBuffer ensure(int length) throws IOException {
+        if (this.buffer.remaining() < length) {
+            drain();
+        }
+        return this.buffer;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        ensure(1).put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            final ByteBuffer b = ensure(1);
+            final int count = Math.min(b.remaining(), length);
+            b.put(data, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Small buffers are staged as usual, larger ones are written to the channel directly (after staging buffer is drained).
+     */
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        if (data.remaining() <= this.buffer.remaining()) {
+            this.buffer.put(data);
+            return;
+        }
+        drain();
+        while (data.hasRemaining()) {
+            this.channel.write(data);
+        }
+    }
+
+    @Override
+    public void writeShortLE(short value) throws IOException {
+        ensure(2).putShort(value);
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+        ensure(4).putInt(value);
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+        ensure(8).putLong(value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+}
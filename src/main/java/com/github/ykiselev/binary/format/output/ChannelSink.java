@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sink writing to {@link WritableByteChannel}. Channel is expected to be in blocking mode.
+ */
+public final class ChannelSink implements Sink {
+
+    private final WritableByteChannel channel;
+
+    private ByteBuffer wrapper;
+
+    public ChannelSink(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    private ByteBuffer wrap(byte[] data, int offset, int length) {
+        if (this.wrapper == null || this.wrapper.array() != data) {
+            this.wrapper = ByteBuffer.wrap(data);
+        }
+        // cast keeps byte code compatible with pre-9 runtimes
+        ((Buffer) this.wrapper).limit(offset + length);
+        ((Buffer) this.wrapper).position(offset);
+        return this.wrapper;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        final ByteBuffer buffer = wrap(data, offset, length);
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary output appending to the file through memory mapping. Region of {@code chunkSize} bytes is mapped after the
+ * current end of file and new region is mapped each time current one can not fit next value. Replaced regions are kept
+ * (without forcing, so writing does not wait for the storage device) until {@link #flush()} or {@link #close()}.
+ * On {@link #close()} file is truncated to the actual length of written data and channel is closed.
+ * Note: some platforms (Windows) do not allow to truncate file while it's mapped.
+ * This class is not thread safe.
+ */
+public final class MappedFileBinaryOutput implements BinaryOutput {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final int chunkSize;
+
+    private long base;
+
+    private MappedByteBuffer current;
+
+    /**
+     * Replaced regions which are not forced yet
+     */
+    private final List<MappedByteBuffer> unforced = new ArrayList<MappedByteBuffer>();
+
+    /**
+     * @param channel   the channel opened for reading and writing
+     * @param chunkSize the size of single mapped region (at least 8 bytes)
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedFileBinaryOutput(FileChannel channel, int chunkSize) throws IOException {
+        if (chunkSize < 8) {
+            throw new IllegalArgumentException("Chunk size is too small: " + chunkSize);
+        }
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.base = channel.size();
+        map();
+    }
+
+    public MappedFileBinaryOutput(FileChannel channel) throws IOException {
+        this(channel, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @return the offset in file where next byte will be written
+     */
+    public long position() {
+        return this.base + this.current.position();
+    }
+
+    private void map() throws IOException {
+        this.current = this.channel.map(FileChannel.MapMode.READ_WRITE, this.base, this.chunkSize);
+        this.current.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Maps next region if current one has less than {@code length} bytes left. Replaced region is remembered to be
+     * forced on {@link #flush()}.
+     *
+     * @param length the required number of bytes (not greater than chunk size)
+     */
+    private MappedByteBuffer ensure(int length) throws IOException {
+        if (this.current.remaining() < length) {
+            this.unforced.add(this.current);
+            this.base += this.current.position();
+            map();
+        }
+        return this.current;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        ensure(1).put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            final MappedByteBuffer buffer = ensure(1);
+            final int count = Math.min(buffer.remaining(), length);
+            buffer.put(data, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            final MappedByteBuffer buffer = ensure(1);
+            if (data.remaining() <= buffer.remaining()) {
+                buffer.put(data);
+            } else {
+                final ByteBuffer chunk = data.duplicate();
+                ((Buffer) chunk).limit(chunk.position() + buffer.remaining());
+                buffer.put(chunk);
+                ((Buffer) data).position(chunk.position());
+            }
+        }
+    }
+
+    @Override
+    public void writeShortLE(short value) throws IOException {
+        ensure(2).putShort(value);
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+        ensure(4).putInt(value);
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+        ensure(8).putLong(value);
+    }
+
+    /**
+     * @return the number of replaced regions which are not forced yet
+     */
+    int unforced() {
+        return this.unforced.size();
+    }
+
+    /**
+     * Forces changes of replaced and current regions to the storage device
+     */
+    @Override
+    public void flush() throws IOException {
+        for (MappedByteBuffer region : this.unforced) {
+            region.force();
+        }
+        this.unforced.clear();
+        this.current.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            final long length = position();
+            flush();
+            this.channel.truncate(length);
+        } finally {
+            this.channel.close();
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package com.github.ykiselev.binary.format.output;
 
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 /**
  * Created by Y.Kiselev on 07.09.2016.
@@ -32,4 +34,29 @@ public final class NoOpBinaryOutput implements BinaryOutput {
     @Override
     public void write(byte[] data, int offset, int length) throws IOException {
     }
+
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        ((Buffer) data).position(data.limit());
+    }
+
+    @Override
+    public void writeShortLE(short value) throws IOException {
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
 }
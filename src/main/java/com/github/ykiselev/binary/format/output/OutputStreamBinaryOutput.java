@@ -18,14 +18,21 @@ package com.github.ykiselev.binary.format.output;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 /**
+ * Unbuffered binary output. Each single byte is passed to underlying stream, so consider using {@link BufferedBinaryOutput}
+ * unless stream is already buffered.
+ * <p>
  * Created by Y.Kiselev on 26.06.2016.
  */
 public final class OutputStreamBinaryOutput implements BinaryOutput {
 
     private final OutputStream os;
 
+    private final byte[] scratch = new byte[8];
+
     public OutputStream os() {
         return os;
     }
@@ -39,6 +46,22 @@ public final class OutputStreamBinaryOutput implements BinaryOutput {
         this.os.write(data, offset, length);
     }
 
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        final int length = data.remaining();
+        if (data.hasArray()) {
+            this.os.write(data.array(), data.arrayOffset() + data.position(), length);
+            ((Buffer) data).position(data.limit());
+        } else if (length > 0) {
+            final byte[] chunk = new byte[Math.min(length, 8 * 1024)];
+            while (data.hasRemaining()) {
+                final int count = Math.min(chunk.length, data.remaining());
+                data.get(chunk, 0, count);
+                this.os.write(chunk, 0, count);
+            }
+        }
+    }
+
     /**
      * Puts one byte in output stream
      *
@@ -49,4 +72,41 @@ public final class OutputStreamBinaryOutput implements BinaryOutput {
         this.os.write(value);
     }
 
+    @Override
+    public void writeShortLE(short value) throws IOException {
+        this.scratch[0] = (byte) value;
+        this.scratch[1] = (byte) (value >>> 8);
+        this.os.write(this.scratch, 0, 2);
+    }
+
+    @Override
+    public void writeIntLE(int value) throws IOException {
+        putInt(value, 0);
+        this.os.write(this.scratch, 0, 4);
+    }
+
+    @Override
+    public void writeLongLE(long value) throws IOException {
+        putInt((int) value, 0);
+        putInt((int) (value >>> 32), 4);
+        this.os.write(this.scratch, 0, 8);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.os.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.os.close();
+    }
+
+    private void putInt(int value, int offset) {
+        this.scratch[offset] = (byte) value;
+        this.scratch[offset + 1] = (byte) (value >>> 8);
+        this.scratch[offset + 2] = (byte) (value >>> 16);
+        this.scratch[offset + 3] = (byte) (value >>> 24);
+    }
+
 }
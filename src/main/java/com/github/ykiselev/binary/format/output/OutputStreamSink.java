@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public final class OutputStreamSink implements Sink {
+
+    private final OutputStream os;
+
+    public OutputStreamSink(OutputStream os) {
+        this.os = os;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        this.os.write(data, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.os.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.os.close();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Final destination of bytes collected by {@link BufferedBinaryOutput}.
+ * May be implemented by user to receive filled buffers directly.
+ */
+public interface Sink extends Flushable, Closeable {
+
+    /**
+     * Consumes specified number of bytes. Implementation should not keep reference to supplied array after method returns.
+     *
+     * @param data   the array to read bytes from
+     * @param offset the offset in supplied array to start reading from
+     * @param length the number of bytes to consume (exactly)
+     * @throws IOException if I/O error occurred
+     */
+    void write(byte[] data, int offset, int length) throws IOException;
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Bounded string cache with CLOCK (second chance) eviction. Hit returns cached instance without decoding.
+ * Strings longer than {@code maxLength} bytes are decoded but never cached.
+ * This class is not thread safe.
+ */
+public final class ClockStringCache implements StringCache {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Entry[] table;
+
+    private final Entry[] ring;
+
+    private final int maxLength;
+
+    private int size;
+
+    private int hand;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * @param capacity  the maximum number of cached strings
+     * @param maxLength the maximum length (in bytes) of cached string
+     */
+    public ClockStringCache(int capacity, int maxLength) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Bad capacity: " + capacity);
+        }
+        this.ring = new Entry[capacity];
+        this.table = new Entry[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the number of lookups which returned cached instance
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups which required decoding
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of cached strings
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 1;
+        for (int i = offset, limit = offset + length; i < limit; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(Entry e, int hash, byte[] bytes, int offset, int length) {
+        if (e.hash != hash || e.bytes.length != length) {
+            return false;
+        }
+        final byte[] b = e.bytes;
+        for (int i = 0; i < length; i++) {
+            if (b[i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String get(byte[] bytes, int offset, int length) {
+        final int hash = hash(bytes, offset, length);
+        final int index = hash & (this.table.length - 1);
+        for (Entry e = this.table[index]; e != null; e = e.next) {
+            if (matches(e, hash, bytes, offset, length)) {
+                e.referenced = true;
+                this.hits++;
+                return e.value;
+            }
+        }
+        this.misses++;
+        final String value = new String(bytes, offset, length, UTF_8);
+        if (length <= this.maxLength) {
+            add(new Entry(Arrays.copyOfRange(bytes, offset, offset + length), hash, value), index);
+        }
+        return value;
+    }
+
+    private void add(Entry entry, int index) {
+        if (this.size < this.ring.length) {
+            this.ring[this.size++] = entry;
+        } else {
+            while (this.ring[this.hand].referenced) {
+                this.ring[this.hand].referenced = false;
+                advance();
+            }
+            remove(this.ring[this.hand]);
+            this.ring[this.hand] = entry;
+            advance();
+        }
+        entry.next = this.table[index];
+        this.table[index] = entry;
+    }
+
+    private void advance() {
+        if (++this.hand == this.ring.length) {
+            this.hand = 0;
+        }
+    }
+
+    private void remove(Entry victim) {
+        final int index = victim.hash & (this.table.length - 1);
+        Entry prev = null;
+        for (Entry e = this.table[index]; e != null; prev = e, e = e.next) {
+            if (e == victim) {
+                if (prev == null) {
+                    this.table[index] = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+                return;
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final byte[] bytes;
+
+        final int hash;
+
+        final String value;
+
+        boolean referenced;
+
+        Entry next;
+
+        Entry(byte[] bytes, int hash, String value) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+/**
+ * Cache of decoded strings keyed on their UTF-8 bytes. Used by readable media to return canonical instances of
+ * repeating strings without decoding them again.
+ */
+public interface StringCache {
+
+    /**
+     * Returns string for supplied UTF-8 bytes. Implementation should not keep reference to supplied array.
+     *
+     * @param bytes  the array holding encoded string
+     * @param offset the offset of first byte
+     * @param length the number of bytes
+     * @return the decoded (possibly cached) string
+     */
+    String get(byte[] bytes, int offset, int length);
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+import com.github.ykiselev.binary.format.output.BinaryOutput;
+
+import java.io.IOException;
+
+/**
+ * UTF-8 encoding routines which do not allocate intermediate byte arrays.
+ * Output is identical to {@link String#getBytes(java.nio.charset.Charset)} - unpaired surrogates are replaced with {@code '?'}.
+ */
+public final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Calculates the length of value encoded in UTF-8
+     *
+     * @param value the value to encode
+     * @return the number of bytes
+     */
+    public static int encodedLength(CharSequence value) {
+        final int length = value.length();
+        int result = length;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                result++;
+            } else if (!Character.isSurrogate(c)) {
+                result += 2;
+            } else if (isPair(value, i)) {
+                // two chars become four bytes
+                result += 2;
+                i++;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isPair(CharSequence value, int index) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    /**
+     * Encodes value to UTF-8 using supplied buffer and writes encoded bytes to the output.
+     *
+     * @param value  the value to encode
+     * @param buffer the temporary buffer (at least 4 bytes), bytes are written to the output when buffer is full
+     * @param output the output to write to
+     * @throws IOException if I/O error occurred
+     */
+    public static void encode(CharSequence value, byte[] buffer, BinaryOutput output) throws IOException {
+        final int length = value.length();
+        final int limit = buffer.length - 4;
+        int p = 0;
+        int i = 0;
+        while (i < length) {
+            if (p > limit) {
+                output.write(buffer, 0, p);
+                p = 0;
+            }
+            char c = value.charAt(i);
+            // ASCII fast path
+            while (c < 0x80) {
+                buffer[p++] = (byte) c;
+                if (++i == length || p > limit) {
+                    break;
+                }
+                c = value.charAt(i);
+            }
+            if (i == length || p > limit) {
+                continue;
+            }
+            if (c < 0x800) {
+                buffer[p++] = (byte) (0xc0 | (c >> 6));
+                buffer[p++] = (byte) (0x80 | (c & 0x3f));
+            } else if (!Character.isSurrogate(c)) {
+                buffer[p++] = (byte) (0xe0 | (c >> 12));
+                buffer[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[p++] = (byte) (0x80 | (c & 0x3f));
+            } else if (isPair(value, i)) {
+                final int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer[p++] = (byte) (0xf0 | (cp >> 18));
+                buffer[p++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buffer[p++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buffer[p++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                buffer[p++] = '?';
+            }
+            i++;
+        }
+        if (p > 0) {
+            output.write(buffer, 0, p);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Character sequence over UTF-8 encoded bytes. Bytes are decoded lazily - only when non-ASCII content is accessed
+ * by index or {@link #toString()} is called. Hash code and equality are computed on raw bytes, so instances can be
+ * used as keys (or compared with {@link #contentEquals(CharSequence)}) without decoding.
+ * Note: hash code is not compatible with {@link String#hashCode()}.
+ * This class is not thread safe.
+ */
+public final class Utf8Sequence implements CharSequence {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer bytes;
+
+    private final boolean ascii;
+
+    private int hash;
+
+    private String decoded;
+
+    /**
+     * @param bytes the encoded bytes (from position to limit). Buffer is used as is, without copying.
+     */
+    public Utf8Sequence(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.ascii = isAscii(bytes);
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        for (int i = bytes.position(), limit = bytes.limit(); i < limit; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the view of encoded bytes
+     */
+    public ByteBuffer bytes() {
+        return bytes.duplicate();
+    }
+
+    /**
+     * @return {@code true} if all characters are ASCII (so no decoding is ever needed)
+     */
+    public boolean isAscii() {
+        return ascii;
+    }
+
+    @Override
+    public int length() {
+        return ascii ? bytes.remaining() : toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (ascii) {
+            if (index < 0 || index >= bytes.remaining()) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return (char) bytes.get(bytes.position() + index);
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Compares content of this sequence with supplied one. ASCII sequences are compared without decoding.
+     *
+     * @param other the sequence to compare with
+     * @return {@code true} if both sequences contain same characters
+     */
+    public boolean contentEquals(CharSequence other) {
+        if (other instanceof Utf8Sequence) {
+            return equals(other);
+        }
+        if (!ascii) {
+            return toString().contentEquals(other);
+        }
+        final int length = bytes.remaining();
+        if (other.length() != length) {
+            return false;
+        }
+        for (int i = 0, p = bytes.position(); i < length; i++, p++) {
+            if (other.charAt(i) != bytes.get(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        if (decoded == null) {
+            final int length = bytes.remaining();
+            if (bytes.hasArray()) {
+                decoded = new String(bytes.array(), bytes.arrayOffset() + bytes.position(), length, UTF_8);
+            } else {
+                final byte[] tmp = new byte[length];
+                bytes.duplicate().get(tmp);
+                decoded = new String(tmp, UTF_8);
+            }
+        }
+        return decoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final Utf8Sequence other = (Utf8Sequence) o;
+        return hashCode() == other.hashCode() && bytes.equals(other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (int i = bytes.position(), limit = bytes.limit(); i < limit; i++) {
+                h = 31 * h + bytes.get(i);
+            }
+            hash = h;
+        }
+        return h;
+    }
+}
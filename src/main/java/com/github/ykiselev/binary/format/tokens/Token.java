@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.tokens;
+
+/**
+ * Tokens returned by {@link TokenReader}
+ */
+public enum Token {
+
+    NULL,
+
+    BOOLEAN,
+
+    BYTE,
+
+    CHAR,
+
+    SHORT,
+
+    INT,
+
+    LONG,
+
+    FLOAT,
+
+    DOUBLE,
+
+    /**
+     * Inline string, see {@link TokenReader#length()} and {@link TokenReader#stringValue()}
+     */
+    STRING,
+
+    /**
+     * Reference to previously read string (index is returned by {@link TokenReader#intValue()}, string is returned by
+     * {@link TokenReader#stringValue()})
+     */
+    STRING_REF,
+
+    START_OBJECT,
+
+    END_OBJECT,
+
+    /**
+     * Reference to previously read object (index is returned by {@link TokenReader#intValue()})
+     */
+    OBJECT_REF,
+
+    /**
+     * Start of array, see {@link TokenReader#length()} and {@link TokenReader#itemType()}. Followed by the item
+     * tokens and {@link #END_ARRAY}.
+     */
+    START_ARRAY,
+
+    END_ARRAY
+}
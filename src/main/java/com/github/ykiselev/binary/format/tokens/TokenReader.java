@@ -0,0 +1,487 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.tokens;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.input.BinaryInput;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pull parser over the binary format which does not need user type classes. Each call to {@link #next()} reads one
+ * token and its value, which is then available through primitive accessors, so no objects are allocated per token
+ * (except when {@link #stringValue()} is called). String bodies are read only on demand and bodies of skipped
+ * containers are skipped with {@link BinaryInput#skip(int)}. If {@link Features#STRING_REFERENCES} is enabled, shared
+ * strings are always decoded to fill the string table.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * Token token;
+ * while ((token = reader.next()) != null) {
+ *     ...
+ * }
+ * </pre>
+ * This class is not thread safe.
+ */
+public final class TokenReader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final BinaryInput input;
+
+    /**
+     * Whether object array items are prefixed with {@link Types#USER_TYPE} (see {@link Features#OBJECT_REFERENCES})
+     */
+    private final boolean prefixedItems;
+
+    /**
+     * Whether each user object starts with packed type id (see {@link Features#TYPE_IDS})
+     */
+    private final boolean typeIds;
+
+    /**
+     * String table or {@code null} if {@link Features#STRING_REFERENCES} is not enabled.
+     */
+    private final List<String> strings;
+
+    private final int features;
+
+    /**
+     * Whether {@link Features#header(int)} is checked (or not expected as there are no features)
+     */
+    private boolean started;
+
+    /**
+     * Number of items left for array containers or -1 for object containers
+     */
+    private int[] remaining = new int[8];
+
+    private int[] itemTypes = new int[8];
+
+    private int depth;
+
+    private Token token;
+
+    private long value;
+
+    private int length;
+
+    private int itemType;
+
+    /**
+     * Number of bytes of current string which are not read yet
+     */
+    private int pending;
+
+    private String string;
+
+    private byte[] buffer;
+
+    /**
+     * Type byte read ahead or -1
+     */
+    private int pushback = -1;
+
+    /**
+     * @param input    the input to read from
+     * @param features the set of {@link Features} used to write data
+     */
+    public TokenReader(BinaryInput input, int features) {
+        this.input = input;
+        this.typeIds = Features.isEnabled(features, Features.TYPE_IDS);
+        this.prefixedItems = this.typeIds || Features.isEnabled(features, Features.OBJECT_REFERENCES);
+        this.strings = Features.isEnabled(features, Features.STRING_REFERENCES) ? new ArrayList<String>() : null;
+        this.features = features;
+        this.started = features == Features.NONE;
+    }
+
+    public TokenReader(BinaryInput input) {
+        this(input, Features.NONE);
+    }
+
+    /**
+     * @return the current token or {@code null} if there is no current token
+     */
+    public Token token() {
+        return this.token;
+    }
+
+    /**
+     * @return the number of open objects and arrays
+     */
+    public int depth() {
+        return this.depth;
+    }
+
+    private int read() throws IOException {
+        final int result = this.pushback;
+        if (result >= 0) {
+            this.pushback = -1;
+            return result;
+        }
+        return this.input.read();
+    }
+
+    private int readPackedInteger() throws IOException {
+        int result = 0;
+        for (int i = 0, shift = 0; i < 5; i++, shift += 7) {
+            final int b = read();
+            result += (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void skip(long bytes) throws IOException {
+        for (long left = bytes; left > 0; ) {
+            final int chunk = (int) Math.min(left, Integer.MAX_VALUE);
+            this.input.skip(chunk);
+            left -= chunk;
+        }
+    }
+
+    private void push(int remaining, int itemType) {
+        if (this.depth == this.remaining.length) {
+            this.remaining = Arrays.copyOf(this.remaining, this.depth * 2);
+            this.itemTypes = Arrays.copyOf(this.itemTypes, this.depth * 2);
+        }
+        this.remaining[this.depth] = remaining;
+        this.itemTypes[this.depth] = itemType;
+        this.depth++;
+    }
+
+    private boolean inArray() {
+        return this.depth > 0 && this.remaining[this.depth - 1] >= 0;
+    }
+
+    private Token token(Token token) {
+        this.token = token;
+        return token;
+    }
+
+    /**
+     * Reads next token
+     *
+     * @return the next token or {@code null} if end of input is reached outside of any object or array
+     * @throws IOException if I/O error occurred or data is malformed
+     */
+    public Token next() throws IOException {
+        if (this.pending > 0) {
+            if (this.strings != null && Types.isShared(this.length)) {
+                // shared string has to be decoded to keep string table in sync
+                stringValue();
+            } else {
+                skip(this.pending);
+                this.pending = 0;
+            }
+        }
+        this.string = null;
+        if (inArray()) {
+            return nextItem();
+        }
+        final int type;
+        if (this.depth == 0 && this.pushback < 0) {
+            try {
+                if (!this.started) {
+                    // empty stream has no header
+                    Features.checkHeader(this.input.read(), this.features);
+                    this.started = true;
+                }
+                type = this.input.read();
+            } catch (EOFException e) {
+                return token(null);
+            }
+        } else {
+            type = read();
+        }
+        return value(type);
+    }
+
+    private Token nextItem() throws IOException {
+        final int top = this.depth - 1;
+        if (this.remaining[top] == 0) {
+            this.depth--;
+            return token(Token.END_ARRAY);
+        }
+        this.remaining[top]--;
+        final int itemType = this.itemTypes[top];
+        if (itemType != Types.USER_TYPE) {
+            return primitive(itemType);
+        }
+        final int type = read();
+        if (this.prefixedItems) {
+            return value(type);
+        }
+        // item body without user type prefix, type byte belongs to the first field
+        this.value = -1;
+        this.pushback = type;
+        push(-1, 0);
+        return token(Token.START_OBJECT);
+    }
+
+    private Token value(int type) throws IOException {
+        switch (type) {
+            case Types.NULL:
+                return token(Token.NULL);
+
+            case Types.STRING:
+                this.length = readPackedInteger();
+                this.pending = this.length;
+                return token(Token.STRING);
+
+            case Types.STRING_REF:
+                if (this.strings == null) {
+                    throw new IOException("Invalid type byte: " + type);
+                }
+                this.value = readPackedInteger();
+                return token(Token.STRING_REF);
+
+            case Types.USER_TYPE:
+                this.value = this.typeIds ? readPackedInteger() : -1;
+                push(-1, 0);
+                return token(Token.START_OBJECT);
+
+            case Types.OBJECT_REF:
+                this.value = readPackedInteger();
+                return token(Token.OBJECT_REF);
+
+            case Types.END_MARKER:
+                if (this.depth == 0 || inArray()) {
+                    throw new IOException("Unexpected end marker");
+                }
+                this.depth--;
+                return token(Token.END_OBJECT);
+
+            default:
+                if (Types.sizeOf(type) > 0) {
+                    return primitive(type);
+                }
+                if ((type & Types.MASK) == Types.BOOLEAN) {
+                    this.value = (type >>> 4) & 1;
+                    return token(Token.BOOLEAN);
+                }
+                if (Types.isArray(type)) {
+                    this.itemType = Types.subType(type);
+                    this.length = readPackedInteger();
+                    if (Types.sizeOf(this.itemType) == 0 && this.itemType != Types.USER_TYPE) {
+                        throw new IOException("Invalid array item type: " + this.itemType);
+                    }
+                    push(this.length, this.itemType);
+                    return token(Token.START_ARRAY);
+                }
+                throw new IOException("Invalid type byte: " + type);
+        }
+    }
+
+    private Token primitive(int type) throws IOException {
+        switch (type) {
+            case Types.BYTE:
+                this.value = (byte) read();
+                return token(Token.BYTE);
+
+            case Types.CHAR:
+                this.value = (char) this.input.readShortLE();
+                return token(Token.CHAR);
+
+            case Types.SHORT:
+                this.value = this.input.readShortLE();
+                return token(Token.SHORT);
+
+            case Types.INT:
+                this.value = this.input.readIntLE();
+                return token(Token.INT);
+
+            case Types.LONG:
+                this.value = this.input.readLongLE();
+                return token(Token.LONG);
+
+            case Types.FLOAT:
+                this.value = this.input.readIntLE();
+                return token(Token.FLOAT);
+
+            case Types.DOUBLE:
+                this.value = this.input.readLongLE();
+                return token(Token.DOUBLE);
+
+            default:
+                throw new IOException("Not a primitive type: " + type);
+        }
+    }
+
+    /**
+     * Skips all tokens of current object or array. After this call current token is corresponding {@link Token#END_OBJECT}
+     * or {@link Token#END_ARRAY}. Does nothing if current token is not {@link Token#START_OBJECT} or {@link Token#START_ARRAY}.
+     *
+     * @throws IOException if I/O error occurred or data is malformed
+     */
+    public void skipChildren() throws IOException {
+        if (this.token != Token.START_OBJECT && this.token != Token.START_ARRAY) {
+            return;
+        }
+        final int target = this.depth - 1;
+        do {
+            if (inArray()) {
+                final int top = this.depth - 1;
+                final int size = Types.sizeOf(this.itemTypes[top]);
+                if (size > 0) {
+                    skip((long) size * this.remaining[top]);
+                    this.remaining[top] = 0;
+                }
+            }
+            next();
+        } while (this.depth > target);
+    }
+
+    private void ensureToken(Token expected) {
+        if (this.token != expected) {
+            throw new IllegalStateException("Current token is " + this.token + ", expected " + expected);
+        }
+    }
+
+    /**
+     * @return the value of {@link Token#BOOLEAN}
+     */
+    public boolean booleanValue() {
+        ensureToken(Token.BOOLEAN);
+        return this.value != 0;
+    }
+
+    /**
+     * @return the value of {@link Token#BYTE}, {@link Token#CHAR}, {@link Token#SHORT}, {@link Token#INT} or the index
+     * of {@link Token#STRING_REF} and {@link Token#OBJECT_REF}
+     */
+    public int intValue() {
+        switch (this.token) {
+            case BYTE:
+            case CHAR:
+            case SHORT:
+            case INT:
+            case STRING_REF:
+            case OBJECT_REF:
+                return (int) this.value;
+
+            default:
+                throw new IllegalStateException("Not an int-compatible token: " + this.token);
+        }
+    }
+
+    /**
+     * @return the value of any integer token
+     */
+    public long longValue() {
+        if (this.token == Token.LONG) {
+            return this.value;
+        }
+        return intValue();
+    }
+
+    /**
+     * @return the value of {@link Token#FLOAT}
+     */
+    public float floatValue() {
+        ensureToken(Token.FLOAT);
+        return Float.intBitsToFloat((int) this.value);
+    }
+
+    /**
+     * @return the value of any numeric token
+     */
+    public double doubleValue() {
+        switch (this.token) {
+            case FLOAT:
+                return floatValue();
+
+            case DOUBLE:
+                return Double.longBitsToDouble(this.value);
+
+            default:
+                return longValue();
+        }
+    }
+
+    /**
+     * @return the value of {@link Token#CHAR}
+     */
+    public char charValue() {
+        ensureToken(Token.CHAR);
+        return (char) this.value;
+    }
+
+    /**
+     * @return the length of {@link Token#STRING} in bytes or the number of items of {@link Token#START_ARRAY}
+     */
+    public int length() {
+        if (this.token != Token.STRING && this.token != Token.START_ARRAY) {
+            throw new IllegalStateException("Current token has no length: " + this.token);
+        }
+        return this.length;
+    }
+
+    /**
+     * @return the type id of {@link Token#START_OBJECT} or -1 if {@link Features#TYPE_IDS} is not enabled
+     */
+    public int typeId() {
+        ensureToken(Token.START_OBJECT);
+        return (int) this.value;
+    }
+
+    /**
+     * @return the item type of {@link Token#START_ARRAY} (see {@link Types})
+     */
+    public int itemType() {
+        ensureToken(Token.START_ARRAY);
+        return this.itemType;
+    }
+
+    /**
+     * Reads and decodes the body of {@link Token#STRING} or resolves {@link Token#STRING_REF} using the string table.
+     * Note that this method allocates new string for inline strings.
+     *
+     * @return the string value
+     * @throws IOException if I/O error occurred or string reference is unknown
+     */
+    public String stringValue() throws IOException {
+        if (this.token == Token.STRING_REF) {
+            final int index = (int) this.value;
+            if (index < 0 || index >= this.strings.size()) {
+                throw new IOException("Unknown string reference: " + index);
+            }
+            return this.strings.get(index);
+        }
+        ensureToken(Token.STRING);
+        if (this.string == null) {
+            if (this.buffer == null || this.buffer.length < this.length) {
+                this.buffer = new byte[Math.max(this.length, 256)];
+            }
+            this.input.read(this.buffer, this.pending);
+            this.pending = 0;
+            this.string = new String(this.buffer, 0, this.length, UTF_8);
+            if (this.strings != null && Types.isShared(this.length)) {
+                this.strings.add(this.string);
+            }
+        }
+        return this.string;
+    }
+}
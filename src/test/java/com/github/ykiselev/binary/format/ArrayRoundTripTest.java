@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format;
+
+import com.github.ykiselev.binary.format.input.ByteBufferBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteBufferBinaryOutput;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Round-trip of arrays which do not fit in single scratch chunk.
+ */
+public class ArrayRoundTripTest {
+
+    private static final int LENGTH = 10_001;
+
+    private final Random random = new Random(1);
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(8 * LENGTH + 16);
+
+    private final WritableMedia writableMedia = new SimpleWritableMedia(new ByteBufferBinaryOutput(buffer), null);
+
+    private ReadableMedia readableMedia() {
+        buffer.flip();
+        return new SimpleReadableMedia(new ByteBufferBinaryInput(buffer), null);
+    }
+
+    @Test
+    public void shouldRoundTripChars() throws Exception {
+        final char[] value = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            value[i] = (char) random.nextInt();
+        }
+        writableMedia.writeCharArray(value);
+        assertArrayEquals(value, readableMedia().readCharArray());
+    }
+
+    @Test
+    public void shouldRoundTripShorts() throws Exception {
+        final short[] value = new short[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            value[i] = (short) random.nextInt();
+        }
+        writableMedia.writeShortArray(value);
+        assertArrayEquals(value, readableMedia().readShortArray());
+    }
+
+    @Test
+    public void shouldRoundTripInts() throws Exception {
+        final int[] value = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            value[i] = random.nextInt();
+        }
+        writableMedia.writeIntArray(value);
+        assertArrayEquals(value, readableMedia().readIntArray());
+    }
+
+    @Test
+    public void shouldRoundTripLongs() throws Exception {
+        final long[] value = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            value[i] = random.nextLong();
+        }
+        writableMedia.writeLongArray(value);
+        assertArrayEquals(value, readableMedia().readLongArray());
+    }
+
+    @Test
+    public void shouldRoundTripFloats() throws Exception {
+        final float[] value = new float[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            value[i] = random.nextFloat();
+        }
+        writableMedia.writeFloatArray(value);
+        assertArrayEquals(value, readableMedia().readFloatArray(), 0f);
+    }
+
+    @Test
+    public void shouldRoundTripDoubles() throws Exception {
+        final double[] value = new double[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            value[i] = random.nextDouble();
+        }
+        writableMedia.writeDoubleArray(value);
+        assertArrayEquals(value, readableMedia().readDoubleArray(), 0d);
+    }
+}
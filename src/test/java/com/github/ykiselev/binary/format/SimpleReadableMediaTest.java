@@ -16,16 +16,19 @@
 
 package com.github.ykiselev.binary.format;
 
+import com.github.ykiselev.binary.format.buffers.ArrayFactory;
 import com.github.ykiselev.binary.format.buffers.SimpleArrayFactory;
 import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
 import com.github.ykiselev.binary.format.input.UserTypeInput;
 import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
 import com.github.ykiselev.binary.format.output.OutputStreamBinaryOutput;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 
 import static org.junit.Assert.*;
@@ -69,6 +72,7 @@ public class SimpleReadableMediaTest {
     @Test
     public void shouldReadBoolean() throws Exception {
         assertTrue(media(new byte[]{Types.BOOLEAN + (1 << 4)}).readBoolean());
+        assertFalse(media(new byte[]{Types.BOOLEAN}).readBoolean());
     }
 
     @Test
@@ -86,6 +90,13 @@ public class SimpleReadableMediaTest {
         assertEquals(100_000, media(new byte[]{Types.INT, (byte) 0xa0, (byte) 0x86, 0x01, 0}).readInt());
     }
 
+    @Test
+    public void shouldSignExtendByte() throws Exception {
+        assertEquals(-2, media(new byte[]{Types.BYTE, -2}).readShort());
+        assertEquals(-2, media(new byte[]{Types.BYTE, -2}).readInt());
+        assertEquals(-2L, media(new byte[]{Types.BYTE, -2}).readLong());
+    }
+
     @Test
     public void shouldReadLong() throws Exception {
         assertEquals(1_000_000_000_000L, media(new byte[]{Types.LONG, 0, 0x10, (byte) 0xa5, (byte) 0xd4, (byte) 0xe8, 0, 0, 0}).readLong());
@@ -141,6 +152,21 @@ public class SimpleReadableMediaTest {
         );
     }
 
+    @Test
+    public void shouldReadNullArrays() throws Exception {
+        final ReadableMedia media = media(new byte[]{
+                Types.NULL, Types.NULL, Types.NULL, Types.NULL, Types.NULL, Types.NULL, Types.NULL, Types.NULL
+        });
+        assertNull(media.readByteArray());
+        assertNull(media.readCharArray());
+        assertNull(media.readShortArray());
+        assertNull(media.readIntArray());
+        assertNull(media.readLongArray());
+        assertNull(media.readFloatArray());
+        assertNull(media.readDoubleArray());
+        assertNull(media.readObjectArray(Object.class));
+    }
+
     @Test
     public void shouldReadByteArray() throws Exception {
         assertArrayEquals(
@@ -274,10 +300,12 @@ public class SimpleReadableMediaTest {
                         Types.DOUBLE, 1, 1, 1, 1, 2, 2, 2, 2,
                         Types.STRING, 3, 'a', 'b', 'c',
                         array(Types.USER_TYPE), 1,
+                        // item is not prefixed, its first field is nested object
                         Types.USER_TYPE,
                         Types.BYTE, 127,
                         Types.STRING, 3, 'x', 'y', 'z',
                         Types.END_MARKER,
+                        Types.END_MARKER,
                         Types.END_MARKER
                 }
         );
@@ -295,12 +323,71 @@ public class SimpleReadableMediaTest {
                         Types.USER_TYPE,
                         Types.BYTE, 127,
                         Types.STRING, 3, 'x', 'y', 'z',
+                        Types.END_MARKER,
                         Types.END_MARKER
                 },
                 readRest(media)
         );
     }
 
+    @Test
+    public void shouldCopyTheRestInChunks() throws Exception {
+        final long[] value = new long[100_000];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = i;
+        }
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        final WritableMedia writer = new SimpleWritableMedia(new OutputStreamBinaryOutput(os), null);
+        writer.writeLongArray(value);
+        os.write(Types.END_MARKER);
+        final byte[] data = os.toByteArray();
+        final int[] maxCapacity = new int[1];
+        final ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        media(data).readRest(
+                new OutputStreamBinaryOutput(rest),
+                new ArrayFactory() {
+                    @Override
+                    public byte[] get(int capacity) {
+                        maxCapacity[0] = Math.max(maxCapacity[0], capacity);
+                        return new byte[capacity];
+                    }
+
+                    @Override
+                    public void release(byte[] array) {
+                    }
+                }
+        );
+        assertArrayEquals(Arrays.copyOf(data, data.length - 1), rest.toByteArray());
+        assertTrue(maxCapacity[0] <= 8 * 1024);
+    }
+
+    @Test
+    public void shouldPeekType() throws Exception {
+        final ReadableMedia media = media(
+                new byte[]{
+                        Types.NULL,
+                        Types.STRING, 3, 'a', 'b', 'c',
+                        Types.BYTE, 5,
+                        Types.BOOLEAN + (1 << 4)
+                }
+        );
+        assertEquals(Types.NULL, media.peekType());
+        assertEquals(Types.NULL, media.peekType());
+        assertNull(media.readString());
+        assertEquals(Types.STRING, media.peekType());
+        assertEquals("abc", media.readString());
+        assertEquals(Types.BYTE, media.peekType());
+        media.skipValue();
+        assertEquals(Types.BOOLEAN, media.peekType() & Types.MASK);
+        assertTrue(media.readBoolean());
+    }
+
+    @Test
+    public void shouldReadLittleEndianSliceFromStream() throws Exception {
+        final ReadableMedia media = media(new byte[]{array(Types.BYTE), 4, 1, 0, 0, 0});
+        assertEquals(1, media.readByteSlice().getInt());
+    }
+
     private static byte[] readRest(ReadableMedia media) throws IOException {
         final ByteArrayOutputStream os = new ByteArrayOutputStream();
         media.readRest(new OutputStreamBinaryOutput(os), new SimpleArrayFactory(16));
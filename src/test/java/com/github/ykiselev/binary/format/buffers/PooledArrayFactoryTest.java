@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.buffers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PooledArrayFactoryTest {
+
+    private final PooledArrayFactory factory = new PooledArrayFactory(16, 1024, 4096);
+
+    @Test
+    public void shouldRoundUpToSizeClass() throws Exception {
+        assertEquals(16, factory.get(1).length);
+        assertEquals(16, factory.get(16).length);
+        assertEquals(32, factory.get(17).length);
+        assertEquals(1024, factory.get(1000).length);
+        assertEquals(5000, factory.get(5000).length);
+    }
+
+    @Test
+    public void shouldReuseReleasedArray() throws Exception {
+        final byte[] array = factory.get(100);
+        factory.release(array);
+        assertEquals(128, factory.retained());
+        assertSame(array, factory.get(100));
+        assertEquals(0, factory.retained());
+        assertNotSame(array, factory.get(100));
+    }
+
+    @Test
+    public void shouldNotPoolLargeArrays() throws Exception {
+        factory.release(factory.get(5000));
+        factory.release(new byte[100]);
+        assertEquals(0, factory.retained());
+    }
+
+    @Test
+    public void shouldLimitRetainedBytes() throws Exception {
+        final List<byte[]> arrays = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            arrays.add(factory.get(1024));
+        }
+        for (byte[] array : arrays) {
+            factory.release(array);
+        }
+        assertTrue(factory.retained() <= 4096);
+    }
+
+    @Test
+    public void shouldBeUsableFromSeveralThreads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int errors = 0;
+                        for (int i = 0; i < 10_000; i++) {
+                            final byte[] array = factory.get(i % 1024 + 1);
+                            array[0] = (byte) i;
+                            if (array[0] != (byte) i) {
+                                errors++;
+                            }
+                            factory.release(array);
+                        }
+                        return errors;
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(0, (int) future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(factory.retained() <= 4096);
+    }
+}
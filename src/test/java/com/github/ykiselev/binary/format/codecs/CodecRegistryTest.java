@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CodecRegistryTest {
+
+    static final class Point {
+
+        int x;
+
+        int y;
+    }
+
+    static final class PointCodec implements Codec<Point> {
+
+        @Override
+        public Class<Point> type() {
+            return Point.class;
+        }
+
+        @Override
+        public void write(WritableMedia media, Point value) throws IOException {
+            media.writeInt(value.x);
+            media.writeInt(value.y);
+        }
+
+        @Override
+        public Point read(ReadableMedia media) throws IOException {
+            final Point value = new Point();
+            value.x = media.readInt();
+            value.y = media.readInt();
+            return value;
+        }
+    }
+
+    private final CodecRegistry registry = new CodecRegistry(new PointCodec());
+
+    @Test
+    public void shouldDispatchToCodec() throws Exception {
+        final Point point = new Point();
+        point.x = 1;
+        point.y = 2;
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(output, this.registry).writeObject(point);
+        final byte[] data = output.toByteArray();
+        assertArrayEquals(
+                new byte[]{Types.USER_TYPE, Types.BYTE, 1, Types.BYTE, 2, Types.END_MARKER},
+                data
+        );
+        final Point result = new SimpleReadableMedia(new ByteArrayBinaryInput(data), this.registry)
+                .readObject(Point.class);
+        assertEquals(1, result.x);
+        assertEquals(2, result.y);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailForUnknownClass() throws Exception {
+        new SimpleWritableMedia(new ByteArrayBinaryOutput(), this.registry).writeObject("not a point");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicateCodecs() throws Exception {
+        new CodecRegistry(new PointCodec(), new PointCodec());
+    }
+}
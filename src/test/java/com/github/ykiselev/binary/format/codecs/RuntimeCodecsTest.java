@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RuntimeCodecsTest {
+
+    static class Base {
+
+        private long id;
+    }
+
+    static final class Dto extends Base {
+
+        static int instances;
+
+        private final String name;
+
+        private boolean active;
+
+        private byte b;
+
+        private char c;
+
+        private short s;
+
+        private int i;
+
+        private float f;
+
+        private double d;
+
+        private int[] ints;
+
+        private double[] doubles;
+
+        private Dto[] children;
+
+        private Dto parent;
+
+        private transient int hash = 42;
+
+        private Dto() {
+            this.name = null;
+        }
+
+        Dto(long id, String name) {
+            ((Base) this).id = id;
+            this.name = name;
+        }
+    }
+
+    static final class NoDefaultConstructor {
+
+        int value;
+
+        NoDefaultConstructor(int value) {
+            this.value = value;
+        }
+    }
+
+    static final class BoxedField {
+
+        Integer value;
+    }
+
+    static final class DateField {
+
+        Date value;
+    }
+
+    static final class ListArrayField {
+
+        List<?>[] value;
+    }
+
+    enum Color {
+        RED
+    }
+
+    static final class EnumField {
+
+        Color value;
+    }
+
+    private static byte[] write(Object value, UserTypeOutput output, int features) throws IOException {
+        final ByteArrayBinaryOutput result = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(result, output, features).writeObject(value);
+        return result.toByteArray();
+    }
+
+    private static <T> T read(byte[] data, UserTypeInput input, int features, Class<T> clazz) throws IOException {
+        return new SimpleReadableMedia(new ByteArrayBinaryInput(data), input, null, features).readObject(clazz);
+    }
+
+    @Test
+    public void shouldWriteFieldsInOrder() throws Exception {
+        final Base value = new Base();
+        value.id = 5;
+        assertArrayEquals(
+                new byte[]{Types.USER_TYPE, Types.BYTE, 5, Types.END_MARKER},
+                write(value, RuntimeCodecs.INSTANCE, Features.NONE)
+        );
+    }
+
+    @Test
+    public void shouldWriteAndReadAllFields() throws Exception {
+        final Dto dto = new Dto(1234567890123L, "name");
+        dto.active = true;
+        dto.b = -1;
+        dto.c = 'ж';
+        dto.s = 300;
+        dto.i = 70000;
+        dto.f = 1.5f;
+        dto.d = -2.5;
+        dto.ints = new int[]{1, 2, 3};
+        dto.children = new Dto[]{new Dto(2, "child")};
+        dto.parent = new Dto(3, null);
+        dto.hash = 1;
+        final Dto result = read(
+                write(dto, RuntimeCodecs.INSTANCE, Features.NONE),
+                RuntimeCodecs.INSTANCE,
+                Features.NONE,
+                Dto.class
+        );
+        assertEquals(1234567890123L, ((Base) result).id);
+        assertEquals("name", result.name);
+        assertTrue(result.active);
+        assertEquals(-1, result.b);
+        assertEquals('ж', result.c);
+        assertEquals(300, result.s);
+        assertEquals(70000, result.i);
+        assertEquals(1.5f, result.f, 0);
+        assertEquals(-2.5, result.d, 0);
+        assertArrayEquals(new int[]{1, 2, 3}, result.ints);
+        assertNull(result.doubles);
+        assertEquals(1, result.children.length);
+        assertEquals(2, ((Base) result.children[0]).id);
+        assertEquals("child", result.children[0].name);
+        assertEquals(3, ((Base) result.parent).id);
+        assertNull(result.parent.name);
+        assertEquals(42, result.hash);
+    }
+
+    @Test
+    public void shouldReadCycles() throws Exception {
+        final Dto dto = new Dto(1, "a");
+        dto.parent = dto;
+        final Dto result = read(
+                write(dto, RuntimeCodecs.INSTANCE, Features.OBJECT_REFERENCES),
+                RuntimeCodecs.INSTANCE,
+                Features.OBJECT_REFERENCES,
+                Dto.class
+        );
+        assertSame(result, result.parent);
+    }
+
+    @Test
+    public void shouldCacheCodecs() throws Exception {
+        assertSame(RuntimeCodecs.codec(Dto.class), RuntimeCodecs.codec(Dto.class));
+    }
+
+    @Test
+    public void shouldWorkWithTypeRegistry() throws Exception {
+        final TypeRegistry registry = new TypeRegistry(RuntimeCodecs.codec(Base.class), RuntimeCodecs.codec(Dto.class));
+        final Base result = read(
+                write(new Dto(7, "seven"), registry, Features.TYPE_IDS),
+                registry,
+                Features.TYPE_IDS,
+                Base.class
+        );
+        assertEquals("seven", ((Dto) result).name);
+        assertEquals(7, result.id);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireDefaultConstructor() throws Exception {
+        RuntimeCodecs.codec(NoDefaultConstructor.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBoxedPrimitives() throws Exception {
+        RuntimeCodecs.codec(BoxedField.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectJdkTypes() throws Exception {
+        RuntimeCodecs.codec(DateField.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectArraysOfJdkTypes() throws Exception {
+        RuntimeCodecs.codec(ListArrayField.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEnums() throws Exception {
+        RuntimeCodecs.codec(EnumField.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldReportUnsupportedClassOnWrite() throws Exception {
+        write(new DateField(), RuntimeCodecs.INSTANCE, Features.NONE);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldReportUnsupportedClassOnRead() throws Exception {
+        read(new byte[]{Types.USER_TYPE, Types.END_MARKER}, RuntimeCodecs.INSTANCE, Features.NONE, Runnable.class);
+    }
+}
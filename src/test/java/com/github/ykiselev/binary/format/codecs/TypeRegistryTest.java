@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.codecs;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.tokens.Token;
+import com.github.ykiselev.binary.format.tokens.TokenReader;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TypeRegistryTest {
+
+    static abstract class Shape {
+    }
+
+    static final class Circle extends Shape {
+
+        int radius;
+
+        Circle(int radius) {
+            this.radius = radius;
+        }
+    }
+
+    static final class Square extends Shape {
+
+        int side;
+
+        Square(int side) {
+            this.side = side;
+        }
+    }
+
+    static final class CircleCodec implements Codec<Circle> {
+
+        @Override
+        public Class<Circle> type() {
+            return Circle.class;
+        }
+
+        @Override
+        public void write(WritableMedia media, Circle value) throws IOException {
+            media.writeInt(value.radius);
+        }
+
+        @Override
+        public Circle read(ReadableMedia media) throws IOException {
+            return new Circle(media.readInt());
+        }
+    }
+
+    static final class SquareCodec implements Codec<Square> {
+
+        @Override
+        public Class<Square> type() {
+            return Square.class;
+        }
+
+        @Override
+        public void write(WritableMedia media, Square value) throws IOException {
+            media.writeInt(value.side);
+        }
+
+        @Override
+        public Square read(ReadableMedia media) throws IOException {
+            return new Square(media.readInt());
+        }
+    }
+
+    private final TypeRegistry registry = new TypeRegistry(new CircleCodec(), null, new SquareCodec());
+
+    private byte[] write(Object[] value) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(output, this.registry, Features.TYPE_IDS).writeObjectArray(value);
+        return output.toByteArray();
+    }
+
+    private ReadableMedia media(byte[] data) {
+        return new SimpleReadableMedia(new ByteArrayBinaryInput(data), this.registry, null, Features.TYPE_IDS);
+    }
+
+    private byte[] shapes() throws IOException {
+        return write(new Shape[]{new Circle(1), null, new Square(2)});
+    }
+
+    @Test
+    public void shouldWriteTypeIds() throws Exception {
+        assertArrayEquals(
+                new byte[]{
+                        (byte) Features.header(Features.TYPE_IDS),
+                        Types.array(Types.USER_TYPE), 3,
+                        Types.USER_TYPE, 0, Types.BYTE, 1, Types.END_MARKER,
+                        Types.NULL,
+                        Types.USER_TYPE, 2, Types.BYTE, 2, Types.END_MARKER
+                },
+                shapes()
+        );
+        assertEquals(0, this.registry.id(Circle.class));
+        assertEquals(2, this.registry.id(Square.class));
+        assertEquals(-1, this.registry.id(Shape.class));
+    }
+
+    @Test
+    public void shouldReadPolymorphicTypes() throws Exception {
+        final Shape[] result = media(shapes()).readObjectArray(Shape.class);
+        assertEquals(3, result.length);
+        assertEquals(1, ((Circle) result[0]).radius);
+        assertNull(result[1]);
+        assertEquals(2, ((Square) result[2]).side);
+    }
+
+    @Test
+    public void shouldSkipObjectsWithTypeIds() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia writer = new SimpleWritableMedia(output, this.registry, Features.TYPE_IDS);
+        writer.writeObjectArray(new Shape[]{new Square(8), new Circle(10)});
+        writer.writeInt(7);
+        final ReadableMedia media = media(output.toByteArray());
+        media.skipValue();
+        assertEquals(7, media.readInt());
+    }
+
+    @Test
+    public void shouldReportTypeIdsAsTokens() throws Exception {
+        final TokenReader reader = new TokenReader(new ByteArrayBinaryInput(shapes()), Features.TYPE_IDS);
+        assertEquals(Token.START_ARRAY, reader.next());
+        assertEquals(Token.START_OBJECT, reader.next());
+        assertEquals(0, reader.typeId());
+        assertEquals(Token.BYTE, reader.next());
+        assertEquals(Token.END_OBJECT, reader.next());
+        assertEquals(Token.NULL, reader.next());
+        assertEquals(Token.START_OBJECT, reader.next());
+        assertEquals(2, reader.typeId());
+        reader.skipChildren();
+        assertEquals(Token.END_ARRAY, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnReservedId() throws Exception {
+        media(new byte[]{Types.USER_TYPE, 1, Types.END_MARKER}).readObject(Shape.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnNegativeId() throws Exception {
+        media(new byte[]{Types.USER_TYPE, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f, Types.END_MARKER})
+                .readObject(Shape.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnUnexpectedType() throws Exception {
+        media(write(new Shape[]{new Circle(1)})).readObjectArray(Square.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnUnregisteredType() throws Exception {
+        write(new Object[]{"string"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicateCodecs() throws Exception {
+        new TypeRegistry(new CircleCodec(), new CircleCodec());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BufferedBinaryInputTest {
+
+    /**
+     * Stream which returns at most 3 bytes per call
+     */
+    private static InputStream trickle(byte[] data) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+    }
+
+    private static final byte[] DATA = {
+            0x7f,
+            2, 1,
+            6, 5, 4, 3,
+            0x0e, 0x0d, 0x0c, 0x0b, 0x0a, 9, 8, 7,
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20,
+            -1
+    };
+
+    private void read(BinaryInput input) throws IOException {
+        assertEquals(0x7f, input.read());
+        assertEquals(0x0102, input.readShortLE());
+        assertEquals(0x03040506, input.readIntLE());
+        assertEquals(0x0708090a0b0c0d0eL, input.readLongLE());
+        final byte[] small = new byte[5];
+        input.read(small, 5);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, small);
+        final byte[] large = new byte[15];
+        input.read(large, 15);
+        assertArrayEquals(new byte[]{6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20}, large);
+        assertEquals(255, input.read());
+    }
+
+    @Test
+    public void shouldReadFromTrickleStream() throws Exception {
+        read(new BufferedBinaryInput(trickle(DATA), 8));
+    }
+
+    @Test
+    public void shouldReadWithLargeBuffer() throws Exception {
+        read(new BufferedBinaryInput(trickle(DATA)));
+    }
+
+    @Test
+    public void unbufferedInputShouldHandleShortReads() throws Exception {
+        read(new InputStreamBinaryInput(trickle(DATA)));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailAtEndOfStream() throws Exception {
+        new BufferedBinaryInput(trickle(new byte[3]), 8).readIntLE();
+    }
+}
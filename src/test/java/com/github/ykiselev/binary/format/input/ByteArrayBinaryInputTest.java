@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ByteArrayBinaryInputTest {
+
+    @Test
+    public void shouldReadRegion() throws Exception {
+        final BinaryInput input = new ByteArrayBinaryInput(
+                new byte[]{
+                        -1, -1,
+                        0x7f,
+                        2, 1,
+                        6, 5, 4, 3,
+                        0x0e, 0x0d, 0x0c, 0x0b, 0x0a, 9, 8, (byte) 0x87,
+                        1, 2,
+                        -1
+                },
+                2,
+                17
+        );
+        assertEquals(0x7f, input.read());
+        assertEquals(0x0102, input.readShortLE());
+        assertEquals(0x03040506, input.readIntLE());
+        assertEquals(0x8708090a0b0c0d0eL, input.readLongLE());
+        final byte[] tail = new byte[2];
+        input.read(tail, 2);
+        assertArrayEquals(new byte[]{1, 2}, tail);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotReadPastRegion() throws Exception {
+        final BinaryInput input = new ByteArrayBinaryInput(new byte[]{1, 2, 3, 4, 5}, 1, 3);
+        input.readIntLE();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectOverflowingRegion() throws Exception {
+        new ByteArrayBinaryInput(new byte[]{1, 2, 3}, 2, Integer.MAX_VALUE);
+    }
+}
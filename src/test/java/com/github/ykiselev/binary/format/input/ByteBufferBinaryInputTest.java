@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ByteBufferBinaryInputTest {
+
+    private static final byte[] DATA = {
+            0x7f,
+            2, 1,
+            6, 5, 4, 3,
+            0x0e, 0x0d, 0x0c, 0x0b, 0x0a, 9, 8, 7,
+            2, 3
+    };
+
+    private static void read(ByteBuffer buffer) throws IOException {
+        buffer.put(DATA).flip();
+        final BinaryInput input = new ByteBufferBinaryInput(buffer);
+        assertEquals(0x7f, input.read());
+        assertEquals(0x0102, input.readShortLE());
+        assertEquals(0x03040506, input.readIntLE());
+        assertEquals(0x0708090a0b0c0d0eL, input.readLongLE());
+        final byte[] tail = new byte[2];
+        input.read(tail, 2);
+        assertArrayEquals(new byte[]{2, 3}, tail);
+    }
+
+    @Test
+    public void shouldReadFromHeapBuffer() throws Exception {
+        read(ByteBuffer.allocate(DATA.length));
+    }
+
+    @Test
+    public void shouldReadFromDirectBuffer() throws Exception {
+        read(ByteBuffer.allocateDirect(DATA.length));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOffsetBeyondLimit() throws Exception {
+        new ByteBufferBinaryInput(ByteBuffer.wrap(new byte[3])).offset(Integer.MAX_VALUE + 1L);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnUnderflow() throws Exception {
+        new ByteBufferBinaryInput(ByteBuffer.wrap(new byte[3])).readIntLE();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.input;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MappedFileBinaryInputTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final long[] values = {1L, Long.MIN_VALUE, 100_000, Long.MAX_VALUE, -2L};
+
+    private final int[] offsets = new int[values.length];
+
+    private File write() throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, null);
+        for (int i = 0; i < values.length; i++) {
+            offsets[i] = output.position();
+            media.writeLong(values[i]);
+        }
+        media.writeString("Hello, мир!");
+        media.writeIntArray(new int[]{1, 2, 3, 4, 5});
+        final File file = folder.newFile();
+        Files.write(file.toPath(), output.toByteArray());
+        return file;
+    }
+
+    @Test
+    public void shouldReadAcrossSegments() throws Exception {
+        try (FileChannel channel = FileChannel.open(write().toPath(), StandardOpenOption.READ)) {
+            final MappedFileBinaryInput input = new MappedFileBinaryInput(channel, 5);
+            final ReadableMedia media = new SimpleReadableMedia(input, null);
+            for (long value : values) {
+                assertEquals(value, media.readLong());
+            }
+            assertEquals("Hello, мир!", media.readString());
+            assertArrayEquals(new int[]{1, 2, 3, 4, 5}, media.readIntArray());
+            assertEquals(input.size(), input.position());
+        }
+    }
+
+    @Test
+    public void shouldSeek() throws Exception {
+        try (FileChannel channel = FileChannel.open(write().toPath(), StandardOpenOption.READ)) {
+            final MappedFileBinaryInput input = new MappedFileBinaryInput(channel, 4);
+            final ReadableMedia media = new SimpleReadableMedia(input, null);
+            for (int i = values.length - 1; i >= 0; i--) {
+                input.position(offsets[i]);
+                assertEquals(offsets[i], input.position());
+                assertEquals(values[i], media.readLong());
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailAtEndOfFile() throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), Arrays.copyOf(new byte[]{1}, 7));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            new MappedFileBinaryInput(channel, 4).readLongLE();
+        }
+    }
+}
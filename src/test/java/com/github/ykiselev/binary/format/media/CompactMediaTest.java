@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompactMediaTest {
+
+    static final class Point {
+
+        final int x;
+
+        final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            final Point point = (Point) value;
+            media.writeInt(point.x);
+            media.writeInt(point.y);
+        }
+    };
+
+    private static final UserTypeInput INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            return clazz.cast(new Point(media.readInt(), media.readInt()));
+        }
+    };
+
+    private final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+
+    private final WritableMedia writer = new CompactWritableMedia(this.output, OUTPUT);
+
+    private ReadableMedia reader() {
+        return new CompactReadableMedia(new ByteArrayBinaryInput(this.output.toByteArray()), INPUT);
+    }
+
+    @Test
+    public void shouldWriteValuesWithoutTypes() throws Exception {
+        this.writer.writeObject(new Point(1, -1));
+        this.writer.writeObject(null);
+        this.writer.writeString("ab");
+        this.writer.writeIntArray(null);
+        assertArrayEquals(
+                new byte[]{
+                        (byte) CompactWritableMedia.HEADER,
+                        1, 2, 1,
+                        0,
+                        3, 'a', 'b',
+                        0
+                },
+                this.output.toByteArray()
+        );
+    }
+
+    @Test
+    public void shouldReadWhatWasWritten() throws Exception {
+        final long[] longs = {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE};
+        this.writer.writePackedInteger(Integer.MAX_VALUE);
+        this.writer.writeByte((byte) -128);
+        this.writer.writeBoolean(true);
+        this.writer.writeBoolean(false);
+        this.writer.writeChar('ж');
+        this.writer.writeShort(Short.MIN_VALUE);
+        this.writer.writeInt(Integer.MIN_VALUE);
+        this.writer.writeInt(Integer.MAX_VALUE);
+        for (long value : longs) {
+            this.writer.writeLong(value);
+        }
+        this.writer.writeFloat(1.5f);
+        this.writer.writeDouble(-2.5);
+        this.writer.writeString(null);
+        this.writer.writeString("");
+        this.writer.writeString("Привет");
+        this.writer.writeString("slice");
+        this.writer.writeByteArray(new byte[]{1, 2, 3});
+        this.writer.writeByteArray(new byte[]{4});
+        this.writer.writeCharArray(new char[]{'a', 'я'});
+        this.writer.writeShortArray(new short[]{-1, 2});
+        this.writer.writeIntArray(new int[0]);
+        this.writer.writeLongArray(longs);
+        this.writer.writeFloatArray(new float[]{0.5f});
+        this.writer.writeDoubleArray(new double[]{0.25});
+        this.writer.writeObjectArray(new Point[]{new Point(3, 4), null});
+
+        final ReadableMedia media = reader();
+        assertEquals(Integer.MAX_VALUE, media.readPackedInteger());
+        assertEquals(-128, media.readByte());
+        assertTrue(media.readBoolean());
+        assertFalse(media.readBoolean());
+        assertEquals('ж', media.readChar());
+        assertEquals(Short.MIN_VALUE, media.readShort());
+        assertEquals(Integer.MIN_VALUE, media.readInt());
+        assertEquals(Integer.MAX_VALUE, media.readInt());
+        for (long value : longs) {
+            assertEquals(value, media.readLong());
+        }
+        assertEquals(1.5f, media.readFloat(), 0);
+        assertEquals(-2.5, media.readDouble(), 0);
+        assertNull(media.readString());
+        assertEquals("", media.readString());
+        assertEquals("Привет", media.readString());
+        assertEquals("slice", media.readStringAsCharSequence().toString());
+        assertArrayEquals(new byte[]{1, 2, 3}, media.readByteArray());
+        assertEquals(ByteBuffer.wrap(new byte[]{4}), media.readByteSlice());
+        assertArrayEquals(new char[]{'a', 'я'}, media.readCharArray());
+        assertArrayEquals(new short[]{-1, 2}, media.readShortArray());
+        assertArrayEquals(new int[0], media.readIntArray());
+        assertArrayEquals(longs, media.readLongArray());
+        assertArrayEquals(new float[]{0.5f}, media.readFloatArray(), 0);
+        assertArrayEquals(new double[]{0.25}, media.readDoubleArray(), 0);
+        final Point[] points = media.readObjectArray(Point.class);
+        assertEquals(2, points.length);
+        assertEquals(3, points[0].x);
+        assertEquals(4, points[0].y);
+        assertNull(points[1]);
+    }
+
+    @Test
+    public void shouldBeSmallerThanSimpleMedia() throws Exception {
+        final ByteArrayBinaryOutput simple = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(simple, OUTPUT).writeObject(new Point(10, 20));
+        this.writer.writeObject(new Point(10, 20));
+        assertEquals(6, simple.position());
+        assertEquals(4, this.output.position());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldDetectSimpleStream() throws Exception {
+        final ByteArrayBinaryOutput simple = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(simple, OUTPUT).writeInt(1);
+        new CompactReadableMedia(new ByteArrayBinaryInput(simple.toByteArray()), INPUT).readInt();
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldBeDetectedBySimpleMedia() throws Exception {
+        this.writer.writeInt(1);
+        new SimpleReadableMedia(new ByteArrayBinaryInput(this.output.toByteArray()), INPUT).readInt();
+    }
+
+    @Test
+    public void shouldReadLittleEndianSliceFromStream() throws Exception {
+        this.writer.writeByteArray(new byte[]{1, 0, 0, 0});
+        final ReadableMedia media = new CompactReadableMedia(
+                new InputStreamBinaryInput(new ByteArrayInputStream(this.output.toByteArray())),
+                INPUT
+        );
+        assertEquals(1, media.readByteSlice().getInt());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotSkip() throws Exception {
+        this.writer.writeInt(1);
+        reader().skipValue();
+    }
+}
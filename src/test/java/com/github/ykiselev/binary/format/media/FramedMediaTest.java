@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.BufferedBinaryInput;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class FramedMediaTest {
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            media.writeString((String) value);
+        }
+    };
+
+    private static final UserTypeInput INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            return clazz.cast(media.readString());
+        }
+    };
+
+    private static byte[] write() throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput(4);
+        final FramedWritableMedia media = new FramedWritableMedia(output, OUTPUT);
+        media.writeObject("first");
+        media.writeObject("second");
+        media.writeObject("third");
+        return output.toByteArray();
+    }
+
+    @Test
+    public void shouldWriteLengthPrefix() throws Exception {
+        final byte[] data = write();
+        // USER_TYPE, STRING, 5, "first", END_MARKER
+        assertEquals(9, data[0]);
+    }
+
+    @Test
+    public void shouldReadSkipAndSplitFrames() throws Exception {
+        final FramedReadableMedia media = new FramedReadableMedia(
+                new BufferedBinaryInput(new ByteArrayInputStream(write()), 8),
+                INPUT
+        );
+        assertEquals("first", media.readObject(String.class));
+        media.skipFrame();
+        final byte[] frame = media.readFrame();
+        assertEquals(
+                "third",
+                new SimpleReadableMedia(new ByteArrayBinaryInput(frame), INPUT).readObject(String.class)
+        );
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailIfObjectDoesNotMatchFrameLength() throws Exception {
+        final byte[] data = write();
+        data[0]++;
+        new FramedReadableMedia(new ByteArrayBinaryInput(data), INPUT).readObject(String.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailIfObjectDoesNotMatchFrameLengthInStream() throws Exception {
+        final byte[] data = write();
+        data[0]--;
+        new FramedReadableMedia(new BufferedBinaryInput(new ByteArrayInputStream(data), 8), INPUT)
+                .readObject(String.class);
+    }
+
+    @Test
+    public void shouldForwardFrames() throws Exception {
+        final FramedReadableMedia media = new FramedReadableMedia(new ByteArrayBinaryInput(write()), INPUT);
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final FramedWritableMedia target = new FramedWritableMedia(output, OUTPUT);
+        final int length = media.readLength();
+        target.writeFrame(media.readFrame(length), 0, length);
+        assertEquals(
+                "first",
+                new FramedReadableMedia(new ByteArrayBinaryInput(output.toByteArray()), INPUT).readObject(String.class)
+        );
+    }
+}
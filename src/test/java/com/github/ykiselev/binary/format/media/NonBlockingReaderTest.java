@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ChannelBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.ChannelBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class NonBlockingReaderTest {
+
+    private Pipe pipe;
+
+    @Before
+    public void setUp() throws Exception {
+        pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pipe.sink().close();
+        pipe.source().close();
+    }
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            media.writeString((String) value);
+            media.writeLongArray(new long[100]);
+        }
+    };
+
+    private static final UserTypeInput INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            final T result = clazz.cast(media.readString());
+            media.readLongArray();
+            return result;
+        }
+    };
+
+    private static byte[] serialize(String... values) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, OUTPUT);
+        for (String value : values) {
+            media.writeObject(value);
+        }
+        return output.toByteArray();
+    }
+
+    private void send(byte[] data, int offset, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        while (buffer.hasRemaining()) {
+            pipe.sink().write(buffer);
+        }
+    }
+
+    private int fill(NonBlockingReader reader) throws IOException {
+        int total = 0, read;
+        while ((read = reader.fill()) > 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    @Test
+    public void shouldDecodeIncrementally() throws Exception {
+        final byte[] data = serialize("first", "second", "third");
+        final NonBlockingReader reader = new NonBlockingReader(new ChannelBinaryInput(pipe.source(), 16), INPUT);
+        final List<String> items = new ArrayList<>();
+        int offset = 0;
+        for (int chunk : new int[]{10, 800, 5, 3000}) {
+            final int length = Math.min(chunk, data.length - offset);
+            send(data, offset, length);
+            offset += length;
+            assertEquals(length, fill(reader));
+            reader.readAvailable(String.class, items);
+            if (offset == 10) {
+                assertEquals(0, items.size());
+            }
+        }
+        assertEquals(data.length, offset);
+        assertEquals(Arrays.asList("first", "second", "third"), items);
+    }
+
+    @Test
+    public void shouldDecodeEachFrameOnce() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final FramedWritableMedia framed = new FramedWritableMedia(output, OUTPUT);
+        framed.writeObject("first");
+        framed.writeObject("second");
+        final byte[] data = output.toByteArray();
+        final int[] decodes = new int[1];
+        final UserTypeInput counting = new UserTypeInput() {
+            @Override
+            public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+                decodes[0]++;
+                return INPUT.read(media, clazz);
+            }
+        };
+        final NonBlockingReader reader = new NonBlockingReader(new ChannelBinaryInput(pipe.source(), 16), counting, true);
+        final List<String> items = new ArrayList<>();
+        for (int offset = 0; offset < data.length; offset += 50) {
+            final int length = Math.min(50, data.length - offset);
+            send(data, offset, length);
+            assertEquals(length, fill(reader));
+            reader.readAvailable(String.class, items);
+        }
+        assertEquals(Arrays.asList("first", "second"), items);
+        assertEquals(2, decodes[0]);
+    }
+
+    @Test
+    public void shouldRemoveMarkOnMalformedData() throws Exception {
+        final ChannelBinaryInput input = new ChannelBinaryInput(pipe.source(), 16);
+        final NonBlockingReader reader = new NonBlockingReader(input, INPUT);
+        send(new byte[]{Types.INT, 1, 2, 3, 4}, 0, 5);
+        assertEquals(5, fill(reader));
+        try {
+            reader.readAvailable(String.class, new ArrayList<String>());
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(5, input.available());
+        try {
+            input.reset();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldWriteAndReadThroughBlockingChannels() throws Exception {
+        pipe.source().configureBlocking(true);
+        try (ChannelBinaryOutput output = new ChannelBinaryOutput(pipe.sink(), 8)) {
+            final WritableMedia media = new SimpleWritableMedia(output, OUTPUT);
+            media.writeObject("first");
+            media.writeObject("second");
+        }
+        final ReadableMedia media = new SimpleReadableMedia(new ChannelBinaryInput(pipe.source(), 8), INPUT);
+        assertEquals("first", media.readObject(String.class));
+        assertEquals("second", media.readObject(String.class));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ObjectReferencesTest {
+
+    static final class Node {
+
+        int value;
+
+        Node next;
+
+        Node(int value, Node next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            final Node node = (Node) value;
+            media.writeInt(node.value);
+            media.writeObject(node.next);
+        }
+    };
+
+    private static UserTypeInput input(final boolean publish) {
+        return new UserTypeInput() {
+            @Override
+            public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+                final Node node = new Node(0, null);
+                if (publish) {
+                    media.publish(node);
+                }
+                node.value = media.readInt();
+                node.next = media.readObject(Node.class);
+                return clazz.cast(node);
+            }
+        };
+    }
+
+    private static byte[] write(Object[] value) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(output, OUTPUT, Features.OBJECT_REFERENCES).writeObjectArray(value);
+        return output.toByteArray();
+    }
+
+    private static Node[] read(byte[] data, boolean publish) throws IOException {
+        return new SimpleReadableMedia(
+                new ByteArrayBinaryInput(data),
+                input(publish),
+                null,
+                Features.OBJECT_REFERENCES
+        ).readObjectArray(Node.class);
+    }
+
+    @Test
+    public void shouldWriteReferenceForSharedObject() throws Exception {
+        final Node shared = new Node(1, null);
+        assertArrayEquals(
+                new byte[]{
+                        (byte) Features.header(Features.OBJECT_REFERENCES),
+                        Types.array(Types.USER_TYPE), 4,
+                        Types.USER_TYPE, Types.BYTE, 1, Types.NULL, Types.END_MARKER,
+                        Types.USER_TYPE, Types.BYTE, 2, Types.OBJECT_REF, 0, Types.END_MARKER,
+                        Types.OBJECT_REF, 0,
+                        Types.NULL
+                },
+                write(new Node[]{shared, new Node(2, shared), shared, null})
+        );
+    }
+
+    @Test
+    public void shouldPreserveSharing() throws Exception {
+        final Node shared = new Node(1, null);
+        final Node[] result = read(write(new Node[]{shared, new Node(2, shared), shared, null}), false);
+        assertEquals(1, result[0].value);
+        assertEquals(2, result[1].value);
+        assertSame(result[0], result[1].next);
+        assertSame(result[0], result[2]);
+        assertNull(result[3]);
+    }
+
+    @Test
+    public void shouldReadCycles() throws Exception {
+        final Node a = new Node(1, null);
+        final Node b = new Node(2, a);
+        a.next = b;
+        final Node[] result = read(write(new Node[]{a}), true);
+        assertEquals(1, result[0].value);
+        assertEquals(2, result[0].next.value);
+        assertSame(result[0], result[0].next.next);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnCycleIfObjectIsNotPublished() throws Exception {
+        final Node a = new Node(1, null);
+        a.next = a;
+        read(write(new Node[]{a}), false);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotCopyRestWithObjectReferences() throws Exception {
+        final Node shared = new Node(1, null);
+        new SimpleReadableMedia(
+                new ByteArrayBinaryInput(write(new Node[]{shared, new Node(2, shared)})),
+                new UserTypeInput() {
+                    @Override
+                    public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+                        media.readInt();
+                        return clazz.cast(media.readRest());
+                    }
+                },
+                null,
+                Features.OBJECT_REFERENCES
+        ).readObjectArray(Object.class);
+    }
+
+    @Test
+    public void shouldWriteObjectInlineAfterReset() throws Exception {
+        final Node shared = new Node(1, null);
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final SimpleWritableMedia writer = new SimpleWritableMedia(output, OUTPUT, Features.OBJECT_REFERENCES);
+        writer.writeObject(shared);
+        writer.reset();
+        writer.writeObject(shared);
+        writer.writeObject(shared);
+        assertArrayEquals(
+                new byte[]{
+                        (byte) Features.header(Features.OBJECT_REFERENCES),
+                        Types.USER_TYPE, Types.BYTE, 1, Types.NULL, Types.END_MARKER,
+                        Types.USER_TYPE, Types.BYTE, 1, Types.NULL, Types.END_MARKER,
+                        Types.OBJECT_REF, 0
+                },
+                output.toByteArray()
+        );
+        final SimpleReadableMedia reader = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(output.toByteArray()),
+                input(false),
+                null,
+                Features.OBJECT_REFERENCES
+        );
+        final Node first = reader.readObject(Node.class);
+        reader.reset();
+        final Node second = reader.readObject(Node.class);
+        assertNotSame(first, second);
+        assertSame(second, reader.readObject(Node.class));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailToReadReferenceIfFeatureIsDisabled() throws Exception {
+        final Node shared = new Node(1, null);
+        new SimpleReadableMedia(
+                new ByteArrayBinaryInput(write(new Node[]{shared, shared})),
+                input(false)
+        ).readObjectArray(Node.class);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.ByteBufferBinaryInput;
+import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RestPassthroughTest {
+
+    /**
+     * Known field (int), unknown fields (string and long array), end marker and one more value after the object
+     */
+    private static byte[] data(int features) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, null, features);
+        media.writeInt(1);
+        media.writeString("unknown");
+        media.writeString("unknown");
+        media.writeLongArray(new long[]{1, 2, 3});
+        output.write(Types.END_MARKER);
+        media.writeInt(2);
+        return output.toByteArray();
+    }
+
+    /**
+     * Writes each item (string) as single string field
+     */
+    private static final UserTypeOutput ITEMS = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            media.writeString((String) value);
+        }
+    };
+
+    /**
+     * Known field (int), unknown fields (object array and int), end marker and one more value after the object
+     */
+    private static byte[] dataWithObjectArray(int features) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, ITEMS, features);
+        media.writeInt(1);
+        media.writeObjectArray(new String[]{"x", "y"});
+        media.writeInt(99);
+        output.write(Types.END_MARKER);
+        media.writeInt(42);
+        return output.toByteArray();
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    @Test
+    public void shouldReturnViewOfArray() throws Exception {
+        final byte[] data = data(Features.NONE);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(data), null);
+        assertEquals(1, media.readInt());
+        final ByteBuffer rest = media.readRest();
+        assertSame(data, rest.array());
+        assertArrayEquals(Arrays.copyOfRange(data, 2, data.length - 3), toArray(rest));
+        assertEquals(2, media.readInt());
+    }
+
+    @Test
+    public void shouldIncludePeekedTypeInView() throws Exception {
+        final byte[] data = data(Features.NONE);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(data), null);
+        assertEquals(1, media.readInt());
+        assertEquals(Types.STRING, media.peekType());
+        assertArrayEquals(Arrays.copyOfRange(data, 2, data.length - 3), toArray(media.readRest()));
+        assertEquals(2, media.readInt());
+    }
+
+    @Test
+    public void shouldCopyRestFromStream() throws Exception {
+        final byte[] data = data(Features.NONE);
+        final ReadableMedia media = new SimpleReadableMedia(
+                new InputStreamBinaryInput(new ByteArrayInputStream(data)),
+                null
+        );
+        assertEquals(1, media.readInt());
+        assertArrayEquals(Arrays.copyOfRange(data, 2, data.length - 3), toArray(media.readRest()));
+        assertEquals(2, media.readInt());
+    }
+
+    @Test
+    public void shouldReturnViewWithObjectArray() throws Exception {
+        final byte[] data = dataWithObjectArray(Features.NONE);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(data), null);
+        assertEquals(1, media.readInt());
+        assertArrayEquals(Arrays.copyOfRange(data, 2, data.length - 3), toArray(media.readRest()));
+        assertEquals(42, media.readInt());
+    }
+
+    @Test
+    public void shouldCopyRestWithObjectArrayFromStream() throws Exception {
+        final byte[] data = dataWithObjectArray(Features.NONE);
+        final ReadableMedia media = new SimpleReadableMedia(
+                new InputStreamBinaryInput(new ByteArrayInputStream(data)),
+                null
+        );
+        assertEquals(1, media.readInt());
+        assertArrayEquals(Arrays.copyOfRange(data, 2, data.length - 3), toArray(media.readRest()));
+        assertEquals(42, media.readInt());
+    }
+
+    @Test
+    public void shouldCopyRestWithPrefixedObjectArray() throws Exception {
+        final byte[] data = dataWithObjectArray(Features.TYPE_IDS);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(data), null, null, Features.TYPE_IDS);
+        assertEquals(1, media.readInt());
+        // skip header, int type and value
+        assertArrayEquals(Arrays.copyOfRange(data, 3, data.length - 3), toArray(media.readRest()));
+        assertEquals(42, media.readInt());
+    }
+
+    @Test
+    public void shouldForwardRestWithObjectArrayAndStringReferences() throws Exception {
+        final ReadableMedia media = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(dataWithObjectArray(Features.STRING_REFERENCES)),
+                null,
+                null,
+                Features.STRING_REFERENCES
+        );
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia target = new SimpleWritableMedia(output, null, Features.STRING_REFERENCES);
+        target.writeInt(media.readInt());
+        target.writeRest(media.readRest());
+        target.writeString("y");
+        output.write(Types.END_MARKER);
+        assertEquals(42, media.readInt());
+
+        final ReadableMedia result = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(output.toByteArray()),
+                null,
+                null,
+                Features.STRING_REFERENCES
+        );
+        assertEquals(1, result.readInt());
+        result.skipValue();
+        assertEquals(99, result.readInt());
+        // reference to the string of forwarded array item
+        assertEquals(Types.STRING_REF, result.peekType());
+        assertEquals("y", result.readString());
+    }
+
+    @Test
+    public void shouldForwardRest() throws Exception {
+        final byte[] data = data(Features.NONE);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteBufferBinaryInput(ByteBuffer.wrap(data)), null);
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia target = new SimpleWritableMedia(output, null);
+        target.writeInt(media.readInt());
+        final ByteBuffer rest = media.readRest();
+        target.writeRest(rest);
+        assertEquals(0, rest.position());
+        output.write(Types.END_MARKER);
+        target.writeInt(media.readInt());
+        assertArrayEquals(data, output.toByteArray());
+    }
+
+    @Test
+    public void shouldForwardRestWithStringReferences() throws Exception {
+        final ReadableMedia media = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(data(Features.STRING_REFERENCES)),
+                null,
+                null,
+                Features.STRING_REFERENCES
+        );
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia target = new SimpleWritableMedia(output, null, Features.STRING_REFERENCES);
+        target.writeInt(media.readInt());
+        target.writeRest(media.readRest());
+        target.writeString("unknown");
+        output.write(Types.END_MARKER);
+
+        final ReadableMedia result = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(output.toByteArray()),
+                null,
+                null,
+                Features.STRING_REFERENCES
+        );
+        assertEquals(1, result.readInt());
+        assertEquals("unknown", result.readString());
+        assertEquals("unknown", result.readString());
+        assertArrayEquals(new long[]{1, 2, 3}, result.readLongArray());
+        assertEquals("unknown", result.readString());
+    }
+}
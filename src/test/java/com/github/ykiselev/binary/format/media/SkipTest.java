@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SkipTest {
+
+    /**
+     * Version 2 of model: id, name, nested objects (only on the first level) and a flag
+     */
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            final String[] v = (String[]) value;
+            media.writeInt(Integer.parseInt(v[0]));
+            media.writeString(v[1]);
+            media.writeObjectArray(v.length == 2 ? new String[][]{{"0", "nested", "leaf"}, {"0", "nested", "leaf"}} : null);
+            media.writeBoolean(true);
+        }
+    };
+
+    /**
+     * Version 1 of model: id only
+     */
+    private static final UserTypeInput INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            final int id = media.readInt();
+            media.skipObject();
+            return clazz.cast(id);
+        }
+    };
+
+    private static byte[] write(int features) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, OUTPUT, features);
+        media.writeInt(1);
+        media.writeString("skipped");
+        media.writeLongArray(new long[1000]);
+        media.writeObject(new String[]{"2", "two"});
+        media.writeObject(null);
+        media.writeObjectArray(new String[][]{{"3", "three"}});
+        media.writeString("skipped");
+        media.writeDouble(4);
+        return output.toByteArray();
+    }
+
+    private static void assertSkipped(ReadableMedia media) throws IOException {
+        assertEquals(1, media.readInt());
+        media.skipValue();
+        media.skipValue();
+        assertEquals(2, (int) media.readObject(Integer.class));
+        media.skipValue();
+        media.skipValue();
+        assertEquals("skipped", media.readString());
+        assertEquals(4, media.readDouble(), 0);
+    }
+
+    @Test
+    public void shouldSkipValues() throws Exception {
+        assertSkipped(new SimpleReadableMedia(new ByteArrayBinaryInput(write(Features.NONE)), INPUT));
+    }
+
+    @Test
+    public void shouldSkipValuesInStream() throws Exception {
+        assertSkipped(
+                new SimpleReadableMedia(
+                        new InputStreamBinaryInput(new ByteArrayInputStream(write(Features.NONE))),
+                        INPUT
+                )
+        );
+    }
+
+    @Test
+    public void shouldKeepTablesInSyncWhileSkipping() throws Exception {
+        final int features = Features.STRING_REFERENCES | Features.OBJECT_REFERENCES;
+        assertSkipped(
+                new SimpleReadableMedia(new ByteArrayBinaryInput(write(features)), INPUT, null, features)
+        );
+    }
+
+    @Test
+    public void shouldSkipArrayItemWithNullFirstField() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia writer = new SimpleWritableMedia(
+                output,
+                new UserTypeOutput() {
+                    @Override
+                    public void write(WritableMedia media, Object value) throws IOException {
+                        media.writeString(null);
+                        media.writeInt(7);
+                    }
+                }
+        );
+        writer.writeObjectArray(new Object[]{"item"});
+        writer.writeInt(42);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(output.toByteArray()), null);
+        media.skipValue();
+        assertEquals(42, media.readInt());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotSkipEndMarker() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        new SimpleWritableMedia(output, null).writeObjectArray(new Object[0]);
+        output.write(Types.END_MARKER);
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(output.toByteArray()), null);
+        media.skipValue();
+        media.skipValue();
+    }
+
+    @Test
+    public void shouldReadTheRestInsideUserType() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia writer = new SimpleWritableMedia(
+                output,
+                new UserTypeOutput() {
+                    @Override
+                    public void write(WritableMedia media, Object value) throws IOException {
+                        media.writeInt(5);
+                        media.writeString("five");
+                        media.writeBoolean(true);
+                    }
+                }
+        );
+        writer.writeObject(5);
+        writer.writeInt(6);
+        final ReadableMedia media = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(output.toByteArray()),
+                new UserTypeInput() {
+                    @Override
+                    public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+                        media.readInt();
+                        return clazz.cast(media.readRest());
+                    }
+                }
+        );
+        final ByteBuffer rest = media.readObject(ByteBuffer.class);
+        final byte[] name = new byte[6];
+        rest.get(name);
+        assertArrayEquals(new byte[]{Types.STRING, 4, 'f', 'i', 'v', 'e'}, name);
+        assertEquals(6, media.readInt());
+    }
+}
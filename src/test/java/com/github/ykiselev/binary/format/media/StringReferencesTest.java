@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.media;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.buffers.SimpleArrayFactory;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.UserTypeInput;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class StringReferencesTest {
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            for (String s : (String[]) value) {
+                media.writeString(s);
+            }
+        }
+    };
+
+    private static final UserTypeInput INPUT = new UserTypeInput() {
+        @Override
+        public <T> T read(ReadableMedia media, Class<T> clazz) throws IOException {
+            return clazz.cast(new String[]{media.readString(), media.readString(), media.readString()});
+        }
+    };
+
+    private static byte[] write(int features, String... values) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, OUTPUT, features);
+        for (String value : values) {
+            media.writeString(value);
+        }
+        return output.toByteArray();
+    }
+
+    @Test
+    public void shouldWriteReferenceForRepeatedString() throws Exception {
+        assertArrayEquals(
+                new byte[]{
+                        (byte) Features.header(Features.STRING_REFERENCES),
+                        Types.STRING, 3, 'a', 'b', 'c',
+                        Types.STRING, 0,
+                        Types.STRING, 3, 'x', 'y', 'z',
+                        Types.STRING_REF, 0,
+                        Types.STRING_REF, 1,
+                        Types.STRING, 0
+                },
+                write(Features.STRING_REFERENCES, "abc", "", "xyz", "abc", "xyz", "")
+        );
+    }
+
+    @Test
+    public void shouldNotWriteReferencesByDefault() throws Exception {
+        assertEquals(10, write(Features.NONE, "abc", "abc").length);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnStreamWithoutHeader() throws Exception {
+        new SimpleReadableMedia(
+                new ByteArrayBinaryInput(write(Features.NONE, "abc", "abc")),
+                INPUT,
+                null,
+                Features.STRING_REFERENCES
+        ).readString();
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnFeaturesMismatch() throws Exception {
+        new SimpleReadableMedia(
+                new ByteArrayBinaryInput(write(Features.STRING_REFERENCES, "abc", "abc")),
+                INPUT,
+                null,
+                Features.STRING_REFERENCES | Features.TYPE_IDS
+        ).readString();
+    }
+
+    @Test
+    public void shouldResolveReferences() throws Exception {
+        final ReadableMedia media = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(write(Features.STRING_REFERENCES, "abc", "xyz", "abc", "xyz", "abc")),
+                INPUT,
+                null,
+                Features.STRING_REFERENCES
+        );
+        assertEquals("abc", media.readString());
+        assertEquals("xyz", media.readStringAsCharSequence().toString());
+        assertEquals("abc", media.readStringAsCharSequence().toString());
+        assertEquals("xyz", media.readString());
+        assertEquals("abc", media.readString());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailToReadReferenceIfFeatureIsDisabled() throws Exception {
+        final ReadableMedia media = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(write(Features.STRING_REFERENCES, "abc", "abc")),
+                INPUT
+        );
+        assertEquals("abc", media.readString());
+        media.readString();
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnUnknownReference() throws Exception {
+        new SimpleReadableMedia(
+                new ByteArrayBinaryInput(new byte[]{Types.STRING_REF, 5}),
+                INPUT,
+                null,
+                Features.STRING_REFERENCES
+        ).readString();
+    }
+
+    @Test
+    public void shouldKeepTablesInSyncWhenForwardingTheRest() throws Exception {
+        final byte[] source = write(Features.STRING_REFERENCES, "abc", "xyz", "abc", "xyz");
+        final byte[] withEndMarker = new byte[source.length + 1];
+        System.arraycopy(source, 0, withEndMarker, 0, source.length);
+        withEndMarker[source.length] = Types.END_MARKER;
+        final ReadableMedia reader = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(withEndMarker),
+                INPUT,
+                null,
+                Features.STRING_REFERENCES
+        );
+        assertEquals("abc", reader.readString());
+        final ByteArrayBinaryOutput rest = new ByteArrayBinaryOutput();
+        reader.readRest(rest, new SimpleArrayFactory(16));
+        // resolved references are inlined, so the blob is self-contained
+        assertEquals(15, rest.position());
+
+        final ByteArrayBinaryOutput target = new ByteArrayBinaryOutput();
+        final WritableMedia forwarder = new SimpleWritableMedia(target, OUTPUT, Features.STRING_REFERENCES);
+        forwarder.writeRest(rest.array(), rest.position());
+        forwarder.writeString("xyz");
+        forwarder.writeString("abc");
+        // header, 15 bytes of blob, 2 references
+        assertEquals(20, target.position());
+
+        final ReadableMedia result = new SimpleReadableMedia(
+                new ByteArrayBinaryInput(target.toByteArray()),
+                INPUT,
+                null,
+                Features.STRING_REFERENCES
+        );
+        assertEquals("xyz", result.readString());
+        assertEquals("abc", result.readString());
+        assertEquals("xyz", result.readString());
+        assertEquals("xyz", result.readString());
+        assertEquals("abc", result.readString());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BufferedBinaryOutputTest {
+
+    private static final byte[] EXPECTED = {
+            0x7f,
+            2, 1,
+            6, 5, 4, 3,
+            0x0e, 0x0d, 0x0c, 0x0b, 0x0a, 9, 8, 7,
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10
+    };
+
+    private static void write(BinaryOutput output) throws IOException {
+        output.write(0x7f);
+        output.writeShortLE((short) 0x0102);
+        output.writeIntLE(0x03040506);
+        output.writeLongLE(0x0708090a0b0c0d0eL);
+        output.write(new byte[]{0, 1, 2, 3}, 1, 3);
+        output.write(new byte[]{4, 5, 6, 7, 8, 9, 10}, 0, 7);
+    }
+
+    @Test
+    public void shouldDrainToCallback() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final int[] calls = new int[3];
+        final BinaryOutput output = new BufferedBinaryOutput(
+                new Sink() {
+                    @Override
+                    public void write(byte[] data, int offset, int length) throws IOException {
+                        assertTrue(length > 1);
+                        bos.write(data, offset, length);
+                        calls[0]++;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        calls[1]++;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        calls[2]++;
+                    }
+                },
+                8
+        );
+        write(output);
+        output.close();
+        assertArrayEquals(EXPECTED, bos.toByteArray());
+        assertEquals(4, calls[0]);
+        assertEquals(1, calls[1]);
+        assertEquals(1, calls[2]);
+    }
+
+    @Test
+    public void shouldNotDrainBeforeFlush() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final BinaryOutput output = new BufferedBinaryOutput(new OutputStreamSink(bos));
+        write(output);
+        assertEquals(0, bos.size());
+        output.flush();
+        assertArrayEquals(EXPECTED, bos.toByteArray());
+    }
+
+    @Test
+    public void shouldDrainToChannel() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final BinaryOutput output = new BufferedBinaryOutput(new ChannelSink(Channels.newChannel(bos)), 16);
+        write(output);
+        output.close();
+        assertArrayEquals(EXPECTED, bos.toByteArray());
+    }
+
+    @Test
+    public void shouldWriteByteBuffers() throws Exception {
+        final byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final ByteBuffer direct = ByteBuffer.allocateDirect(30);
+        direct.put(data, 10, 30);
+        ((Buffer) direct).flip();
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final BinaryOutput output = new BufferedBinaryOutput(new OutputStreamSink(bos), 16);
+        output.write(ByteBuffer.wrap(data, 0, 10));
+        output.write(direct);
+        output.write(ByteBuffer.wrap(data, 40, 60));
+        output.flush();
+        assertEquals(0, direct.remaining());
+        assertArrayEquals(data, bos.toByteArray());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ByteArrayBinaryOutputTest {
+
+    private final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput(1);
+
+    @Test
+    public void shouldGrow() throws Exception {
+        output.write(0x7f);
+        output.writeShortLE((short) 0x0102);
+        output.writeIntLE(0x03040506);
+        output.writeLongLE(0x0708090a0b0c0d0eL);
+        output.write(new byte[]{0, 1, 2, 3}, 1, 3);
+        assertEquals(18, output.position());
+        assertArrayEquals(
+                new byte[]{
+                        0x7f,
+                        2, 1,
+                        6, 5, 4, 3,
+                        0x0e, 0x0d, 0x0c, 0x0b, 0x0a, 9, 8, 7,
+                        1, 2, 3
+                },
+                output.toByteArray()
+        );
+    }
+
+    @Test
+    public void shouldReUseArrayAfterReset() throws Exception {
+        output.writeLongLE(-1L);
+        final byte[] array = output.array();
+        output.reset();
+        output.writeIntLE(0x01020304);
+        assertSame(array, output.array());
+        assertArrayEquals(new byte[]{4, 3, 2, 1}, output.toByteArray());
+    }
+}
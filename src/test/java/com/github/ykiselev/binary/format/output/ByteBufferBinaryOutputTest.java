@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ByteBufferBinaryOutputTest {
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        buffer.flip();
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    private static byte[] write(ByteBuffer buffer) throws IOException {
+        final BinaryOutput output = new ByteBufferBinaryOutput(buffer);
+        output.write(0x7f);
+        output.writeShortLE((short) 0x0102);
+        output.writeIntLE(0x03040506);
+        output.writeLongLE(0x0708090a0b0c0d0eL);
+        output.write(new byte[]{1, 2, 3}, 1, 2);
+        return toArray(buffer);
+    }
+
+    private static final byte[] EXPECTED = {
+            0x7f,
+            2, 1,
+            6, 5, 4, 3,
+            0x0e, 0x0d, 0x0c, 0x0b, 0x0a, 9, 8, 7,
+            2, 3
+    };
+
+    @Test
+    public void shouldWriteToHeapBuffer() throws Exception {
+        assertArrayEquals(EXPECTED, write(ByteBuffer.allocate(32)));
+    }
+
+    @Test
+    public void shouldWriteToDirectBuffer() throws Exception {
+        assertArrayEquals(EXPECTED, write(ByteBuffer.allocateDirect(32)));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnOverflow() throws Exception {
+        new ByteBufferBinaryOutput(ByteBuffer.allocate(7)).writeLongLE(1L);
+    }
+}
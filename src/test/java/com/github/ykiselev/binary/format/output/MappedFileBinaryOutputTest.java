@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.output;
+
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedFileBinaryOutputTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static void write(BinaryOutput output) throws IOException {
+        final WritableMedia media = new SimpleWritableMedia(output, null);
+        media.writeLong(Long.MAX_VALUE);
+        media.writeString("Hello, мир!");
+        media.writeIntArray(new int[]{1, 2, 3, 4, 5});
+        media.writeDouble(Math.PI);
+    }
+
+    @Test
+    public void shouldAppendAndTruncate() throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (BinaryOutput output = new MappedFileBinaryOutput(channel, 8)) {
+            write(output);
+        }
+        final ByteArrayBinaryOutput expected = new ByteArrayBinaryOutput();
+        expected.write(new byte[]{1, 2, 3}, 0, 3);
+        write(expected);
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void shouldForceAllRegionsOnFlush() throws Exception {
+        final File file = folder.newFile();
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final ByteArrayBinaryOutput expected = new ByteArrayBinaryOutput();
+        try (MappedFileBinaryOutput output = new MappedFileBinaryOutput(channel, 16)) {
+            for (int i = 0; i < 4; i++) {
+                write(output);
+                write(expected);
+            }
+            assertTrue(output.unforced() > 2);
+            output.flush();
+            assertEquals(0, output.unforced());
+            write(output);
+            write(expected);
+        }
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file.toPath()));
+    }
+}
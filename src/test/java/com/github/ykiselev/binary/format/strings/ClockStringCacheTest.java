@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ClockStringCacheTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ClockStringCache cache = new ClockStringCache(2, 16);
+
+    private String get(String value) {
+        final byte[] bytes = ("xx" + value).getBytes(UTF_8);
+        return cache.get(bytes, 2, bytes.length - 2);
+    }
+
+    @Test
+    public void shouldReturnCanonicalInstance() throws Exception {
+        final String a = get("ключ");
+        assertEquals("ключ", a);
+        assertSame(a, get("ключ"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void shouldEvictNotReferenced() throws Exception {
+        final String a = get("a");
+        final String b = get("b");
+        // give "a" second chance
+        assertSame(a, get("a"));
+        get("c");
+        assertEquals(2, cache.size());
+        assertSame(a, get("a"));
+        assertNotSame(b, get("b"));
+    }
+
+    @Test
+    public void shouldNotCacheLongStrings() throws Exception {
+        final String value = "0123456789abcdefg";
+        assertNotSame(get(value), get(value));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldBeUsedByMedia() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia writableMedia = new SimpleWritableMedia(output, null);
+        writableMedia.writeString("USD");
+        writableMedia.writeString("EUR");
+        writableMedia.writeString("USD");
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(output.toByteArray()), null, cache);
+        final String usd = media.readString();
+        assertEquals("EUR", media.readString());
+        assertSame(usd, media.readString());
+        assertEquals(1, cache.hits());
+    }
+}
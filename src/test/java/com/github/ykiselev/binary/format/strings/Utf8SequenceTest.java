@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+import com.github.ykiselev.binary.format.ReadableMedia;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleReadableMedia;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class Utf8SequenceTest {
+
+    private byte[] data;
+
+    @Before
+    public void setUp() throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, null);
+        media.writeString("key");
+        media.writeString("ключ");
+        media.writeString(null);
+        media.writeByteArray(new byte[]{1, 2, 3});
+        media.writeString("key");
+        data = output.toByteArray();
+    }
+
+    @Test
+    public void shouldReadViews() throws Exception {
+        final ReadableMedia media = new SimpleReadableMedia(new ByteArrayBinaryInput(data), null);
+        final Utf8Sequence key = media.readStringAsCharSequence();
+        assertTrue(key.isAscii());
+        assertSame(data, key.bytes().array());
+        assertTrue(key.contentEquals("key"));
+        assertFalse(key.contentEquals("kez"));
+        assertEquals(3, key.length());
+        assertEquals('e', key.charAt(1));
+
+        final Utf8Sequence other = media.readStringAsCharSequence();
+        assertFalse(other.isAscii());
+        assertTrue(other.contentEquals("ключ"));
+        assertEquals(4, other.length());
+        assertEquals("ключ", other.toString());
+
+        assertNull(media.readStringAsCharSequence());
+
+        final ByteBuffer bytes = media.readByteSlice();
+        assertSame(data, bytes.array());
+        assertEquals(3, bytes.remaining());
+        assertEquals(2, bytes.get(1));
+
+        final Utf8Sequence same = media.readStringAsCharSequence();
+        assertEquals(key, same);
+        assertEquals(key.hashCode(), same.hashCode());
+    }
+
+    @Test
+    public void shouldCopyFromStream() throws Exception {
+        final ReadableMedia media = new SimpleReadableMedia(new InputStreamBinaryInput(new ByteArrayInputStream(data)), null);
+        assertEquals("key", media.readStringAsCharSequence().toString());
+        assertEquals("ключ", media.readStringAsCharSequence().toString());
+    }
+}
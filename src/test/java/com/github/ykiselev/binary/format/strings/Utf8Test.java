@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.strings;
+
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Utf8Test {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static void check(String value, int bufferSize) throws Exception {
+        final byte[] expected = value.getBytes(UTF_8);
+        assertEquals(expected.length, Utf8.encodedLength(value));
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        Utf8.encode(value, new byte[bufferSize], output);
+        assertArrayEquals(value, expected, output.toByteArray());
+    }
+
+    @Test
+    public void shouldEncodeLikeString() throws Exception {
+        final String[] values = {
+                "",
+                "identifier_42",
+                "Превед, Медвежуть!",
+                "mixed ascii и кириллица, €uro",
+                "emoji 😀 pair",
+                "lone \uD83D high",
+                "lone \uDE00 low",
+                "trailing high \uD83D"
+        };
+        for (String value : values) {
+            check(value, 4);
+            check(value, 5);
+            check(value, 8192);
+        }
+    }
+
+    @Test
+    public void shouldEncodeLongString() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            sb.append((char) ('a' + i % 26)).append(i % 7 == 0 ? "ж" : "").append(i % 101 == 0 ? "😀" : "");
+        }
+        check(sb.toString(), 8192);
+    }
+}
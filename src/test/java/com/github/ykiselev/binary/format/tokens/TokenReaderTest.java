@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 Yuriy Kiselev uze@yandex.ru
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.ykiselev.binary.format.tokens;
+
+import com.github.ykiselev.binary.format.Features;
+import com.github.ykiselev.binary.format.Types;
+import com.github.ykiselev.binary.format.WritableMedia;
+import com.github.ykiselev.binary.format.input.ByteArrayBinaryInput;
+import com.github.ykiselev.binary.format.input.InputStreamBinaryInput;
+import com.github.ykiselev.binary.format.media.SimpleWritableMedia;
+import com.github.ykiselev.binary.format.output.ByteArrayBinaryOutput;
+import com.github.ykiselev.binary.format.output.UserTypeOutput;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TokenReaderTest {
+
+    static final class Record {
+
+        final int id;
+
+        final String name;
+
+        final Record[] children;
+
+        Record(int id, String name, Record... children) {
+            this.id = id;
+            this.name = name;
+            this.children = children;
+        }
+    }
+
+    private static final UserTypeOutput OUTPUT = new UserTypeOutput() {
+        @Override
+        public void write(WritableMedia media, Object value) throws IOException {
+            final Record record = (Record) value;
+            media.writeInt(record.id);
+            media.writeString(record.name);
+            media.writeLongArray(new long[]{record.id, 1_000_000_000_000L});
+            media.writeBoolean(false);
+            media.writeDouble(0.5);
+            media.writeObjectArray(record.children);
+        }
+    };
+
+    private static byte[] write(int features, Record... records) throws IOException {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(output, OUTPUT, features);
+        for (Record record : records) {
+            media.writeObject(record);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * @param nullItem whether second child is expected to be null (null items are only supported for prefixed items)
+     */
+    private static void assertTokens(TokenReader reader, boolean nullItem) throws IOException {
+        assertEquals(Token.START_OBJECT, reader.next());
+        assertEquals(Token.BYTE, reader.next());
+        assertEquals(1, reader.intValue());
+        assertEquals(Token.STRING, reader.next());
+        assertEquals(4, reader.length());
+        assertEquals("root", reader.stringValue());
+        assertEquals(Token.START_ARRAY, reader.next());
+        assertEquals(Types.LONG, reader.itemType());
+        assertEquals(2, reader.length());
+        assertEquals(Token.LONG, reader.next());
+        assertEquals(1, reader.longValue());
+        assertEquals(Token.LONG, reader.next());
+        assertEquals(1_000_000_000_000L, reader.longValue());
+        assertEquals(Token.END_ARRAY, reader.next());
+        assertEquals(Token.BOOLEAN, reader.next());
+        assertFalse(reader.booleanValue());
+        assertEquals(Token.DOUBLE, reader.next());
+        assertEquals(0.5, reader.doubleValue(), 0);
+        assertEquals(Token.START_ARRAY, reader.next());
+        assertEquals(nullItem ? 2 : 1, reader.length());
+        assertEquals(Token.START_OBJECT, reader.next());
+        assertEquals(3, reader.depth());
+        assertEquals(Token.BYTE, reader.next());
+        assertEquals(2, reader.intValue());
+        // string body is skipped
+        assertEquals(Token.STRING, reader.next());
+        assertEquals(Token.START_ARRAY, reader.next());
+        reader.skipChildren();
+        assertEquals(Token.END_ARRAY, reader.token());
+        assertEquals(Token.BOOLEAN, reader.next());
+        assertEquals(Token.DOUBLE, reader.next());
+        assertEquals(Token.NULL, reader.next());
+        assertEquals(Token.END_OBJECT, reader.next());
+        if (nullItem) {
+            assertEquals(Token.NULL, reader.next());
+        }
+        assertEquals(Token.END_ARRAY, reader.next());
+        assertEquals(Token.END_OBJECT, reader.next());
+        assertEquals(0, reader.depth());
+    }
+
+    @Test
+    public void shouldReadTokens() throws Exception {
+        final byte[] data = write(Features.NONE, new Record(1, "root", new Record(2, "child", (Record[]) null)));
+        final TokenReader reader = new TokenReader(new ByteArrayBinaryInput(data));
+        assertTokens(reader, false);
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldReadPrefixedItems() throws Exception {
+        final byte[] data = write(
+                Features.OBJECT_REFERENCES,
+                new Record(1, "root", new Record(2, "child", (Record[]) null), null)
+        );
+        final TokenReader reader = new TokenReader(new ByteArrayBinaryInput(data), Features.OBJECT_REFERENCES);
+        assertTokens(reader, true);
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldReadItemWithNullFirstField() throws Exception {
+        final ByteArrayBinaryOutput output = new ByteArrayBinaryOutput();
+        final WritableMedia media = new SimpleWritableMedia(
+                output,
+                new UserTypeOutput() {
+                    @Override
+                    public void write(WritableMedia media, Object value) throws IOException {
+                        media.writeString(null);
+                        media.writeInt(7);
+                    }
+                }
+        );
+        media.writeObjectArray(new Object[]{"item"});
+        final TokenReader reader = new TokenReader(new ByteArrayBinaryInput(output.toByteArray()));
+        assertEquals(Token.START_ARRAY, reader.next());
+        assertEquals(Token.START_OBJECT, reader.next());
+        assertEquals(Token.NULL, reader.next());
+        assertEquals(Token.BYTE, reader.next());
+        assertEquals(7, reader.intValue());
+        assertEquals(Token.END_OBJECT, reader.next());
+        assertEquals(Token.END_ARRAY, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldResolveStringReferences() throws Exception {
+        final byte[] data = write(
+                Features.STRING_REFERENCES,
+                new Record(1, "shared", new Record(2, "child")),
+                new Record(3, "shared", new Record(4, "child"))
+        );
+        final TokenReader reader = new TokenReader(new ByteArrayBinaryInput(data), Features.STRING_REFERENCES);
+        int refs = 0;
+        final StringBuilder names = new StringBuilder();
+        for (Token token; (token = reader.next()) != null; ) {
+            if (token == Token.STRING_REF) {
+                refs++;
+                names.append(reader.stringValue()).append(' ');
+            } else if (token == Token.STRING && reader.depth() == 1) {
+                // only top-level names are decoded, nested ones are skipped by caller
+                names.append(reader.stringValue()).append(' ');
+            }
+        }
+        assertEquals(2, refs);
+        assertEquals("shared shared child ", names.toString());
+    }
+
+    @Test
+    public void shouldAggregateFieldOfRecords() throws Exception {
+        final Record[] records = new Record[100];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new Record(i, "record" + i, new Record(-1, "child"));
+        }
+        final TokenReader reader = new TokenReader(
+                new InputStreamBinaryInput(new ByteArrayInputStream(write(Features.NONE, records)))
+        );
+        long sum = 0;
+        while (reader.next() == Token.START_OBJECT) {
+            reader.next();
+            sum += reader.longValue();
+            reader.next();
+            reader.next();
+            reader.skipChildren();
+            reader.next();
+            reader.next();
+            reader.next();
+            reader.skipChildren();
+            assertEquals(Token.END_OBJECT, reader.next());
+        }
+        assertEquals(99 * 100 / 2, sum);
+        assertNull(reader.token());
+    }
+}